@@ -5,6 +5,9 @@ import java.util.ArrayList;
  * representing the approximate block solver, which is used to generate
  * the columns. 
  *
+ * The starting solution of {@link MaxMin} may be computed in parallel,
+ * such that solve needs to be safe to call from several threads.
+ *
  * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
  * @param <I> the type of the input for the block solver
  * @param <T> the type of the output of the block solver, containted by a {@link Vector}
@@ -21,4 +24,46 @@ public interface ABS<I,T>{
      *         used by the {@link MaxMin} algorithm
      */
     public Vector<T> solve(ArrayList<Double> price, double t, I input);
+
+    /**
+     * Finds a vector x in the block with an approximation ratio of
+     * (1-t) for a price vector given as primitive array
+     *
+     * Block solvers which work on arrays should override this, such
+     * that no list needs to be created.
+     *
+     * @param price the price vector describing the block problem
+     * @param t the precision for which to solve the problem
+     * @param input the input describing the functions and the block
+     * @return a {@link Vector} containing the next column to be
+     *         used by the {@link MaxMin} algorithm
+     */
+    public default Vector<T> solve(double[] price, double t, I input){
+        ArrayList<Double> p = new ArrayList<>(price.length);
+        for (double d: price){
+            p.add(d);
+        }
+        return solve(p,t,input);
+    }
+
+    /**
+     * Finds a vector x in the block with an approximation ratio of
+     * (1-t) for the price vector which is 1 at a single index and 0
+     * everywhere else
+     *
+     * Block solvers which know the solution for such price vectors
+     * should override this.
+     *
+     * @param ind the index of the 1
+     * @param m the size of the price vector
+     * @param t the precision for which to solve the problem
+     * @param input the input describing the functions and the block
+     * @return a {@link Vector} containing a column covering the
+     *         function with index ind
+     */
+    public default Vector<T> solveUnit(int ind, int m, double t, I input){
+        double[] price = new double[m];
+        price[ind] = 1;
+        return solve(price,t,input);
+    }
 }
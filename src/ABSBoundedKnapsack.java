@@ -0,0 +1,24 @@
+/**
+ * This is an approximative block solver ({@link ABS}) for the bin
+ * packing problem which solves bounded knapsack problems, i.e. a
+ * pattern never contains more copies of an item than its multiplicity
+ *
+ * The bounds are respected by {@link Knapsack}, which splits the
+ * copies of the items into powers of two. Patterns with more copies
+ * than available can not be used in an integral solution, so they
+ * are never generated.
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public class ABSBoundedKnapsack extends ABSKnapsack{
+
+    /**
+     * Returns how many copies of an item may be used in a pattern
+     *
+     * @param item an item of the bin packing problem
+     * @return the multiplicity of the item, but at least 1
+     */
+    public int bound(BPItem item){
+        return Math.max(1,(int)Math.floor(item.multiplicity));
+    }
+}
@@ -0,0 +1,28 @@
+import java.util.ArrayList;
+
+/**
+ * This is an approximative block solver ({@link ABS}) for the bin
+ * packing problem which solves the knapsack problems exactly via
+ * {@link BranchAndBound}
+ *
+ * The rounded instances contain only few item types, such that the
+ * exact solution is cheap and the {@link MaxMin} algorithm gets the
+ * best column in every iteration.
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public class ABSBranchAndBound extends ABSKnapsack{
+
+    /**
+     * Solves the knapsack problem with capacity 1 belonging to a price
+     * vector exactly
+     *
+     * @param items the items with their profits and sizes
+     * @param t ignored, as the solution is optimal
+     * @return a {@link Pattern} containing an optimal solution
+     */
+    public Pattern<KPItem> pack(ArrayList<KPItem> items, double t){
+        BranchAndBound bb = new BranchAndBound();
+        return bb.solve(items,1);
+    }
+}
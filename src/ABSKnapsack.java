@@ -11,6 +11,51 @@ import java.util.HashMap;
  */
 public class ABSKnapsack implements ABS<ArrayList<BPItem>,Pattern<BPItem>>{
 
+    /**
+     * The index of the item types of the last input, this is volatile
+     * as solve may be called from several threads
+     */
+    volatile TypeIndex index;
+
+    /**
+     * The pool of recently generated patterns, which are used again if
+     * they are good enough for a price vector, or <code>null</code> if
+     * every price vector is solved by the knapsack algorithm
+     */
+    public PatternPool pool;
+
+    /**
+     * Creates a new ABSKnapsack which solves every price vector by the
+     * knapsack algorithm
+     *
+     */
+    public ABSKnapsack(){}
+
+    /**
+     * Creates a new ABSKnapsack with a pool of recently generated
+     * patterns
+     *
+     * @param capacity the maximal number of stored patterns
+     */
+    public ABSKnapsack(int capacity){
+        pool = new PatternPool(capacity);
+    }
+
+    /**
+     * Returns the index of the item types of an input
+     *
+     * @param input the items taken from the bin packing problem
+     * @return a {@link TypeIndex} for the items of input
+     */
+    public TypeIndex getIndex(ArrayList<BPItem> input){
+        TypeIndex idx = index;
+        if (idx == null || idx.types != input){
+            idx = new TypeIndex(input);
+            index = idx;
+        }
+        return idx;
+    }
+
     /**
      * Solves the knapsack problem with given profits and sizes to a precision of (1-t).
      * 
@@ -23,38 +68,134 @@ public class ABSKnapsack implements ABS<ArrayList<BPItem>,Pattern<BPItem>>{
      * 
      */
     public Vector<Pattern<BPItem>> solve(ArrayList<Double> price, double t, ArrayList<BPItem> input){
+        double[] p = new double[price.size()];
+        for (int i = 0; i < p.length; i++){
+            p[i] = price.get(i);
+        }
+        return solve(p,t,input);
+    }
+
+    /**
+     * Solves the knapsack problem with given profits and sizes to a precision of (1-t).
+     * 
+     * @param price the profit of the items
+     * @param t the precision with which to solve the problem
+     * @param input the items taken from the bin packing problem,
+     * describing the sizes of the items
+     * @return a {@link Vector} containing the computed, approximate
+     * solution of the knapsack problem
+     * 
+     */
+    public Vector<Pattern<BPItem>> solve(double[] price, double t, ArrayList<BPItem> input){
+        TypeIndex idx = getIndex(input);
 
-        // map the BPItems to the KPItems
-        HashMap<KPItem,BPItem> ass = new HashMap<KPItem,BPItem>();
+        // map the KPItems to the indices of the BPItems
+        HashMap<KPItem,Integer> ass = new HashMap<KPItem,Integer>();
         ArrayList<KPItem> items = new ArrayList<>();
         
         // generate the knapsack instance
         for (int i = 0; i < input.size(); i++){
             BPItem item = input.get(i);
-            items.add(new KPItem(item.id,price.get(i)/item.multiplicity,item.size));
-            ass.put(items.get(i),item);
+            items.add(new KPItem(item.id,price[i]/item.multiplicity,item.size,bound(item)));
+            ass.put(items.get(i),i);
         }
+
+        // copies of another item are at least as good as a dominated one
+        Dominance dom = new Dominance();
+        items = dom.reduce(items);
+
+        // use a stored pattern if it is within (1-t) of an upper bound
+        if (pool != null){
+            // the stored patterns may belong to another instance
+            if (pool.index != idx){
+                pool.reset(idx);
+            }
+            double[] w = new double[input.size()];
+            for (int i = 0; i < w.length; i++){
+                w[i] = price[i]/input.get(i).multiplicity;
+            }
+            BranchAndBound bb = new BranchAndBound();
+            Pattern<BPItem> stored = pool.find(w,(1-t)*bb.upperBound(items,1));
+            if (stored != null){
+                Vector<Pattern<BPItem>> res = new Vector<>();
+                res.put(stored,1);
+                return res;
+            }
+        }
+
+        Pattern<KPItem> p = pack(items,t);
         
-        Knapsack k = new Knapsack();
-        Pattern<KPItem> p = k.lawler(items,t,1);
-        Pattern<BPItem> pres = new Pattern<>();
-        
-        // compute the solution 
-        for (KPItem i: p.items.keySet()){
-            pres.put(ass.get(i),p.get(i));
+        // compute the solution in the dense representation
+        int[] counts = new int[input.size()];
+        for (KPItem i: p){
+            counts[ass.get(i)] = p.count(i);
         }
         Vector<Pattern<BPItem>> res = new Vector<>();
-        
+        Pattern<BPItem> pattern = idx.decode(counts);
+        if (pool != null){
+            pool.add(pattern,counts);
+        }
 
-        res.put(pres,1);
+        res.put(pattern,1);
         return res;
         
     }
-    
-}
-
 
+    /**
+     * Solves the knapsack problem with capacity 1 belonging to a price
+     * vector, this uses the algorithm of Lawler
+     *
+     * @param items the items with their profits and sizes
+     * @param t the precision with which to solve the problem
+     * @return a {@link Pattern} containing the used items with value
+     *         >= (1-t)OPT
+     */
+    public Pattern<KPItem> pack(ArrayList<KPItem> items, double t){
+        Knapsack k = new Knapsack();
+        return k.lawler(items,t,1);
+    }
 
+    /**
+     * Returns how many copies of an item may be used in a pattern
+     *
+     * @param item an item of the bin packing problem
+     * @return <code>Integer.MAX_VALUE</code>, as the copies are not
+     *         limited
+     */
+    public int bound(BPItem item){
+        return Integer.MAX_VALUE;
+    }
 
+    /**
+     * Solves the knapsack problem where only a single item has a
+     * profit, i.e. the bin is filled with copies of this item
+     * 
+     * @param ind the index of the item with profit
+     * @param m the number of items
+     * @param t the precision with which to solve the problem
+     * @param input the items taken from the bin packing problem,
+     * describing the sizes of the items
+     * @return a {@link Vector} containing the optimal solution of the
+     * knapsack problem
+     */
+    public Vector<Pattern<BPItem>> solveUnit(int ind, int m, double t, ArrayList<BPItem> input){
+        double size = input.get(ind).size;
+        int k = (int) Math.floor(1/size);
 
+        // correct rounding errors of the division
+        while ((k+1)*size <= 1){
+            k++;
+        }
+        while (k > 0 && k*size > 1){
+            k--;
+        }
+        k = Math.min(k,bound(input.get(ind)));
 
+        // build the pattern directly, a dense array would cost O(m)
+        PatternBuilder<BPItem> pb = new PatternBuilder<>();
+        pb.put(input.get(ind),k);
+        Vector<Pattern<BPItem>> res = new Vector<>();
+        res.put(pb.build().intern(),1);
+        return res;
+    }
+}
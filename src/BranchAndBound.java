@@ -0,0 +1,307 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Solves the unbounded knapsack problem exactly via a depth-first
+ * branch and bound in the style of the algorithm MTU1 by Martello and
+ * Toth, as described in "Knapsack Problems: Algorithms and Computer
+ * Implementations" (1990)
+ *
+ * The sizes do not need to be integral. The items are sorted by their
+ * ratios, items dominated by copies of another item are removed and
+ * every item is packed as often as possible first. The search stops as
+ * soon as the upper bound U3 of Martello and Toth is reached.
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public class BranchAndBound implements KnapsackSolver{
+
+    /**
+     * The number of nodes visited by the last search
+     */
+    public long nodes;
+
+    /**
+     * The remaining items ordered by their ratios
+     */
+    KPItem[] its;
+
+    /**
+     * The profits of the remaining items
+     */
+    double[] p;
+
+    /**
+     * The sizes of the remaining items
+     */
+    double[] w;
+
+    /**
+     * The number of copies of the items in the current node
+     */
+    int[] x;
+
+    /**
+     * The number of copies of the items in the best solution found
+     */
+    int[] best;
+
+    /**
+     * The value of the best solution found
+     */
+    double bestValue;
+
+    /**
+     * An upper bound for the optimal value
+     */
+    double upper;
+
+    /**
+     * Creates a new BranchAndBound instance
+     *
+     */
+    public BranchAndBound(){}
+
+    /**
+     * Solves the unbounded knapsack problem
+     *
+     * @param xs a list of items with profit and size
+     * @param b the capacity of the knapsack
+     * @return a pattern containing the optimal solution
+     */
+    public Pattern<KPItem> solve(ArrayList<KPItem> xs, int b){
+        ArrayList<KPItem> cand = new ArrayList<>();
+        for (KPItem it: xs){
+            if (it.profit > 0 && it.size <= b){
+                cand.add(it);
+            }
+        }
+        its = removeDominated(cand);
+        int n = its.length;
+        p = new double[n];
+        w = new double[n];
+        for (int i = 0; i < n; i++){
+            p[i] = its[i].profit;
+            w[i] = its[i].size;
+        }
+        x = new int[n];
+        best = new int[n];
+        bestValue = 0;
+        nodes = 0;
+        upper = upperBound(b);
+
+        search(0,b,0);
+
+        PatternBuilder<KPItem> res = new PatternBuilder<>();
+        for (int i = 0; i < n; i++){
+            if (best[i] > 0){
+                res.put(its[i],best[i]);
+            }
+        }
+        return res.build();
+    }
+
+    /**
+     * Computes the upper bound U3 of Martello and Toth without solving
+     * the problem
+     *
+     * Only the three items with the best ratios are needed, so they are
+     * found in a single pass instead of sorting the items.
+     *
+     * @param xs a list of items with profit and size
+     * @param b the capacity of the knapsack
+     * @return an upper bound for the optimal value
+     */
+    public double upperBound(ArrayList<KPItem> xs, int b){
+        KPItem[] top = new KPItem[3];
+        int n = 0;
+        for (KPItem it: xs){
+            if (it.profit <= 0 || it.size > b){
+                continue;
+            }
+            // insert the item into the three best items
+            int pos = n;
+            while (pos > 0 && better(it,top[pos-1])){
+                if (pos < 3){
+                    top[pos] = top[pos-1];
+                }
+                pos--;
+            }
+            if (pos < 3){
+                top[pos] = it;
+            }
+            n = Math.min(3,n+1);
+        }
+        // use local arrays, such that the state of a search is kept
+        double[] tp = new double[n];
+        double[] tw = new double[n];
+        for (int i = 0; i < n; i++){
+            tp[i] = top[i].profit;
+            tw[i] = top[i].size;
+        }
+        return upperBound(tp,tw,b);
+    }
+
+    /**
+     * Tests whether an item comes before another one in the order of
+     * the ratios
+     *
+     * @param a an item
+     * @param b another item
+     * @return <code>true</code> if a has a better ratio than b or the
+     *         same ratio and a smaller size
+     */
+    boolean better(KPItem a, KPItem b){
+        int c = Double.compare(a.profit*b.size,b.profit*a.size);
+        return c > 0 || (c == 0 && a.size < b.size);
+    }
+
+    /**
+     * Removes all items dominated by copies of another item via
+     * {@link Dominance}
+     *
+     * @param xs a list of items
+     * @return the remaining items ordered by their ratios, items of the
+     *         same ratio ordered by their sizes
+     */
+    KPItem[] removeDominated(ArrayList<KPItem> xs){
+        KPItem[] sorted = new Dominance().reduce(xs).toArray(new KPItem[0]);
+        Arrays.sort(sorted,new java.util.Comparator<KPItem>(){
+                public int compare(KPItem a, KPItem b){
+                    int c = Double.compare(b.profit*a.size,a.profit*b.size);
+                    if (c != 0){
+                        return c;
+                    }
+                    return Double.compare(a.size,b.size);
+                }});
+        return sorted;
+    }
+
+    /**
+     * Computes how often an item fits into a given capacity
+     *
+     * @param c the capacity
+     * @param size the size of the item
+     * @return the largest k with k*size <= c
+     */
+    int fits(double c, double size){
+        int k = (int) Math.floor(c/size);
+        // correct rounding errors of the division
+        while (k > 0 && k*size > c){
+            k--;
+        }
+        return k;
+    }
+
+    /**
+     * Computes the upper bound U3 of Martello and Toth for the whole
+     * instance
+     *
+     * @param c the capacity of the knapsack
+     * @return an upper bound for the optimal value
+     */
+    double upperBound(double c){
+        return upperBound(p,w,c);
+    }
+
+    /**
+     * Computes the upper bound U3 of Martello and Toth for items given
+     * by their profits and sizes
+     *
+     * @param p the profits of the items ordered by their ratios
+     * @param w the sizes of the items
+     * @param c the capacity of the knapsack
+     * @return an upper bound for the optimal value
+     */
+    double upperBound(double[] p, double[] w, double c){
+        int n = p.length;
+        if (n == 0){
+            return 0;
+        }
+        if (n == 1){
+            return fits(c,w[0])*p[0];
+        }
+        int k1 = fits(c,w[0]);
+        double c1 = c-k1*w[0];
+        int k2 = fits(c1,w[1]);
+        double c2 = c1-k2*w[1];
+        double z = k1*p[0]+k2*p[1];
+
+        // continue with the third item
+        double r3 = 0;
+        if (n > 2){
+            r3 = p[2]/w[2];
+        }
+        double u0 = z+c2*r3;
+
+        // remove copies of the first item to take another copy of the
+        // second one
+        int m = (int) Math.ceil((w[1]-c2)/w[0]);
+        double u1 = z+(c2+m*w[0])*p[1]/w[1]-m*p[0];
+        if (m > k1){
+            u1 = u0;
+        }
+        return Math.max(u0,u1);
+    }
+
+    /**
+     * Computes an upper bound for the items starting at a given index
+     * by packing the first one as often as possible and the remaining
+     * capacity fractionally with the second one
+     *
+     * @param j the index of the first item
+     * @param c the remaining capacity
+     * @return an upper bound for the profit reachable with the items
+     */
+    double bound(int j, double c){
+        if (j >= p.length){
+            return 0;
+        }
+        int k = fits(c,w[j]);
+        double res = k*p[j];
+        if (j+1 < p.length){
+            res = res+(c-k*w[j])*p[j+1]/w[j+1];
+        }
+        return res;
+    }
+
+    /**
+     * Searches all solutions extending the current node
+     *
+     * @param j the index of the next item to decide on
+     * @param c the remaining capacity
+     * @param z the profit of the current node
+     * @return <code>true</code> if the upper bound was reached and the
+     *         search can stop
+     */
+    boolean search(int j, double c, double z){
+        nodes++;
+        if (j == p.length){
+            if (z > bestValue){
+                bestValue = z;
+                System.arraycopy(x,0,best,0,x.length);
+            }
+            return bestValue >= upper;
+        }
+        if (z+bound(j,c) <= bestValue){
+            return false;
+        }
+        for (int k = fits(c,w[j]); k >= 0; k--){
+            // the fractional bound decreases with k
+            double r = 0;
+            if (j+1 < p.length){
+                r = p[j+1]/w[j+1];
+            }
+            if (z+k*p[j]+(c-k*w[j])*r <= bestValue){
+                break;
+            }
+            x[j] = k;
+            if (search(j+1,c-k*w[j],z+k*p[j])){
+                x[j] = 0;
+                return true;
+            }
+        }
+        x[j] = 0;
+        return false;
+    }
+}
@@ -8,7 +8,7 @@ import java.util.ArrayList;
  * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
  */
 
-public class CKnapsack{
+public class CKnapsack implements KnapsackSolver{
 
     /**
      * Creates a new CKNapsack instance
@@ -67,11 +67,11 @@ public class CKnapsack{
             double[] s = cplex.getValues(x);
             
 
-            Pattern<KPItem> res = new Pattern<>();
+            PatternBuilder<KPItem> res = new PatternBuilder<>();
             for (int i = 0; i <xs.size() ; i++){
                 res.add(xs.get(i),(int)s[i]);
             }
-            return res;
+            return res.build();
         } catch (Exception e) {
             System.err.println("Concert exception caught: " + e);
         }   
@@ -0,0 +1,113 @@
+import java.util.ArrayList;
+
+/**
+ * Solves the unbounded knapsack problem with integral sizes exactly via
+ * dynamic programming over the capacity
+ *
+ * Only the most profitable item of every size is used and items which
+ * are dominated by a smaller item with at least the same profit are
+ * removed. For large capacities, most of the knapsack is filled with
+ * copies of an item with the best ratio beforehand, as there is an
+ * optimal solution using less than w* other items, where w* is the size
+ * of this item.
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public class DPKnapsack implements KnapsackSolver{
+
+    /**
+     * Creates a new DPKnapsack instance
+     *
+     */
+    public DPKnapsack(){}
+
+    /**
+     * Solves the unbounded knapsack problem
+     * 
+     * @param xs a list of items with profit and integral size
+     * @param b the capacity of the knapsack
+     * @return a pattern containing the optimal solution
+     */
+    public Pattern<KPItem> solve(ArrayList<KPItem> xs, int b){
+        PatternBuilder<KPItem> res = new PatternBuilder<>();
+
+        // keep the most profitable item of every size
+        int wmax = 0;
+        for (KPItem it: xs){
+            int w = (int) it.size;
+            if (w <= b && it.profit > 0){
+                wmax = Math.max(wmax,w);
+            }
+        }
+        KPItem[] best = new KPItem[wmax+1];
+        for (KPItem it: xs){
+            int w = (int) it.size;
+            if (w <= b && it.profit > 0 && (best[w] == null || it.profit > best[w].profit)){
+                best[w] = it;
+            }
+        }
+
+        // remove items dominated by smaller ones
+        int n = 0;
+        int[] ws = new int[wmax+1];
+        double[] ps = new double[wmax+1];
+        KPItem[] its = new KPItem[wmax+1];
+        double maxp = 0;
+        int star = -1;
+        for (int w = 1; w <= wmax; w++){
+            if (best[w] != null && best[w].profit > maxp){
+                maxp = best[w].profit;
+                ws[n] = w;
+                ps[n] = best[w].profit;
+                its[n] = best[w];
+
+                // the item with the best ratio, smaller items first
+                if (star == -1 || ps[n]*ws[star] > ps[star]*w){
+                    star = n;
+                }
+                n++;
+            }
+        }
+        if (n == 0){
+            return res.build();
+        }
+
+        // fill most of the knapsack with the item with the best ratio
+        int wstar = ws[star];
+        int k = Math.max(0,(b-wstar*(wmax+1))/wstar);
+        res.add(its[star],k);
+        int cap = b-k*wstar;
+
+        // opt[c] is the best profit with capacity c, last[c] the last
+        // item used or -1 if capacity c-1 is as good
+        double[] opt = new double[cap+1];
+        int[] last = new int[cap+1];
+        last[0] = -1;
+        for (int c = 1; c <= cap; c++){
+            double val = opt[c-1];
+            int arg = -1;
+            for (int i = 0; i < n && ws[i] <= c; i++){
+                double tmp = opt[c-ws[i]]+ps[i];
+                if (tmp > val){
+                    val = tmp;
+                    arg = i;
+                }
+            }
+            opt[c] = val;
+            last[c] = arg;
+        }
+
+        // reconstruct the solution
+        int c = cap;
+        while (c > 0){
+            if (last[c] == -1){
+                c--;
+            }
+            else{
+                res.add(its[last[c]],1);
+                c = c-ws[last[c]];
+            }
+        }
+        return res.build();
+    }
+}
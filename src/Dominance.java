@@ -0,0 +1,96 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Removes the items of a knapsack problem, which are
+ * dominated by copies of another item
+ *
+ * An item j is dominated by an item i if k copies of i are not larger
+ * than j and have at least the profit of j for some k >= 1. As every
+ * copy of j in a solution can be replaced by k copies of i, the optimal
+ * value does not change. Only items which may be used arbitrarily
+ * often can dominate other items.
+ *
+ * The items are sorted by their sizes and swept once. An item is only
+ * compared with the remaining items of at most half its size, all
+ * other smaller items are covered by the largest profit seen so far.
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public class Dominance{
+
+    /**
+     * The number of items removed by the last reduction
+     */
+    public int removed;
+
+    /**
+     * Creates a new Dominance instance
+     *
+     */
+    public Dominance(){}
+
+    /**
+     * Removes all dominated items
+     *
+     * @param xs a list of items
+     * @return the remaining items ordered by their sizes, items of the
+     *         same size are reduced to one item with maximal profit
+     */
+    public ArrayList<KPItem> reduce(ArrayList<KPItem> xs){
+        KPItem[] sorted = xs.toArray(new KPItem[0]);
+        Arrays.sort(sorted,new java.util.Comparator<KPItem>(){
+                public int compare(KPItem a, KPItem b){
+                    int c = Double.compare(a.size,b.size);
+                    if (c != 0){
+                        return c;
+                    }
+                    return Double.compare(b.profit,a.profit);
+                }});
+        ArrayList<KPItem> res = new ArrayList<>();
+        double maxProfit = Double.NEGATIVE_INFINITY;
+        for (KPItem j: sorted){
+            // a single copy of a smaller unbounded item is at least as
+            // good
+            if (j.profit <= maxProfit){
+                continue;
+            }
+            boolean dominated = false;
+            for (KPItem i: res){
+                // a single copy of i has a smaller profit than j
+                if (2*i.size > j.size){
+                    break;
+                }
+                if (i.bound == Integer.MAX_VALUE && copies(j.size,i.size)*i.profit >= j.profit){
+                    dominated = true;
+                    break;
+                }
+            }
+            if (!dominated){
+                res.add(j);
+                if (j.bound == Integer.MAX_VALUE){
+                    maxProfit = j.profit;
+                }
+            }
+        }
+        removed = xs.size()-res.size();
+        return res;
+    }
+
+    /**
+     * Computes how many copies of an item fit into the size of another
+     * item
+     *
+     * @param c the size of the other item
+     * @param size the size of the item
+     * @return the largest k with k*size <= c
+     */
+    int copies(double c, double size){
+        int k = (int) Math.floor(c/size);
+        // correct rounding errors of the division
+        while (k > 0 && k*size > c){
+            k--;
+        }
+        return k;
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * This stores a set of linearly independent columns together with an
+ * elimination matrix E, such that E maps every stored column to a unit
+ * vector
+ *
+ * A stored column can be replaced by another one by a single pivot
+ * step, such that the columns never have to be factorized again. The
+ * entries of transformed columns which are within a tolerance of an
+ * integer are snapped to it, as the columns of a bin packing solution
+ * are integral and their kernel vectors are mostly integral as well.
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public class Elimination{
+
+    /**
+     * The tolerance used to compare values with integers
+     */
+    public static final double EPS = 1e-9;
+
+    /**
+     * The elimination matrix
+     */
+    double[][] e;
+
+    /**
+     * Whether a row is the pivot row of a stored column
+     */
+    boolean[] pivot;
+
+    /**
+     * The number of rows
+     */
+    int m;
+
+    /**
+     * Creates a new Elimination without any columns
+     *
+     * @param m the number of rows
+     */
+    public Elimination(int m){
+        this.m = m;
+        e = new double[m][m];
+        for (int i = 0; i < m; i++){
+            e[i][i] = 1;
+        }
+        pivot = new boolean[m];
+    }
+
+    /**
+     * Multiplies a column with the elimination matrix
+     *
+     * If the column is a linear combination of the stored columns, the
+     * result contains its coefficients at the pivot rows of these
+     * columns and zeros elsewhere.
+     *
+     * @param col the column
+     * @return the transformed column
+     */
+    public double[] transform(int[] col){
+        double[] d = new double[m];
+        for (int j = 0; j < m; j++){
+            if (col[j] != 0){
+                for (int i = 0; i < m; i++){
+                    d[i] = d[i]+e[i][j]*col[j];
+                }
+            }
+        }
+        snap(d);
+        return d;
+    }
+
+    /**
+     * Multiplies a column given by its non-zero entries with the
+     * elimination matrix, the result is not snapped
+     *
+     * @param rows the rows of the non-zero entries
+     * @param values the values of the non-zero entries
+     * @param from the position of the first entry of the column
+     * @param to the position after the last entry of the column
+     * @return the transformed column
+     */
+    public double[] transform(int[] rows, int[] values, int from, int to){
+        double[] d = new double[m];
+        for (int k = from; k < to; k++){
+            int j = rows[k];
+            for (int i = 0; i < m; i++){
+                d[i] = d[i]+e[i][j]*values[k];
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Snaps the entries of a transformed column which are close to an
+     * integer to this integer
+     *
+     * @param d the transformed column
+     */
+    public void snap(double[] d){
+        // prevent the errors from accumulating
+        for (int i = 0; i < m; i++){
+            double r = Math.rint(d[i]);
+            if (Math.abs(d[i]-r) <= EPS){
+                d[i] = r;
+            }
+        }
+    }
+
+    /**
+     * Finds a row which is not used as pivot yet, where a transformed
+     * column is non-zero
+     *
+     * @param d the transformed column
+     * @return the row with the largest absolute value or
+     *         <code>-1</code> if the column is a linear combination of
+     *         the stored columns
+     */
+    public int findPivot(double[] d){
+        int res = -1;
+        double max = EPS;
+        for (int i = 0; i < m; i++){
+            if (!pivot[i] && Math.abs(d[i]) > max){
+                max = Math.abs(d[i]);
+                res = i;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Stores a column by eliminating it at a given row, this replaces
+     * the column stored at this row if there is one
+     *
+     * @param row the pivot row
+     * @param d the transformed column
+     */
+    public void pivot(int row, double[] d){
+        double[] er = e[row];
+        double inv = 1/d[row];
+        for (int j = 0; j < m; j++){
+            er[j] = er[j]*inv;
+        }
+        for (int i = 0; i < m; i++){
+            if (i != row && d[i] != 0){
+                double f = d[i];
+                double[] ei = e[i];
+                for (int j = 0; j < m; j++){
+                    ei[j] = ei[j]-f*er[j];
+                }
+            }
+        }
+        pivot[row] = true;
+    }
+}
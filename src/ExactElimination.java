@@ -0,0 +1,121 @@
+/**
+ * This stores a set of linearly independent integral columns together
+ * with an integral elimination matrix E and a determinant det, such
+ * that E maps every stored column to det times a unit vector
+ *
+ * The pivot steps are fraction-free as in the algorithm of Bareiss,
+ * i.e. every division by the previous determinant is exact, such that
+ * the kernel vectors are computed without any round-off error. All
+ * operations throw an {@link ArithmeticException} if a value does not
+ * fit into a long or a division is not exact.
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public class ExactElimination{
+
+    /**
+     * The elimination matrix
+     */
+    long[][] e;
+
+    /**
+     * The determinant of the stored columns at their pivot rows
+     */
+    long det;
+
+    /**
+     * Whether a row is the pivot row of a stored column
+     */
+    boolean[] pivot;
+
+    /**
+     * The number of rows
+     */
+    int m;
+
+    /**
+     * Creates a new ExactElimination without any columns
+     *
+     * @param m the number of rows
+     */
+    public ExactElimination(int m){
+        this.m = m;
+        e = new long[m][m];
+        for (int i = 0; i < m; i++){
+            e[i][i] = 1;
+        }
+        det = 1;
+        pivot = new boolean[m];
+    }
+
+    /**
+     * Multiplies a column given by its non-zero entries with the
+     * elimination matrix
+     *
+     * If the column is a linear combination of the stored columns, the
+     * result contains det times its coefficients at the pivot rows of
+     * these columns and zeros elsewhere.
+     *
+     * @param rows the rows of the non-zero entries
+     * @param values the values of the non-zero entries
+     * @param from the position of the first entry of the column
+     * @param to the position after the last entry of the column
+     * @return the transformed column
+     */
+    public long[] transform(int[] rows, int[] values, int from, int to){
+        long[] d = new long[m];
+        for (int k = from; k < to; k++){
+            int j = rows[k];
+            for (int i = 0; i < m; i++){
+                d[i] = Math.addExact(d[i],Math.multiplyExact(e[i][j],(long) values[k]));
+            }
+        }
+        return d;
+    }
+
+    /**
+     * Finds a row which is not used as pivot yet, where a transformed
+     * column is non-zero
+     *
+     * @param d the transformed column
+     * @return the row with the smallest non-zero absolute value, which
+     *         keeps the determinant small, or <code>-1</code> if the
+     *         column is a linear combination of the stored columns
+     */
+    public int findPivot(long[] d){
+        int res = -1;
+        for (int i = 0; i < m; i++){
+            if (!pivot[i] && d[i] != 0 && (res == -1 || Math.abs(d[i]) < Math.abs(d[res]))){
+                res = i;
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Stores a column by eliminating it at a given row, this replaces
+     * the column stored at this row if there is one
+     *
+     * @param row the pivot row
+     * @param d the transformed column
+     */
+    public void pivot(int row, long[] d){
+        long[] er = e[row];
+        long dr = d[row];
+        for (int i = 0; i < m; i++){
+            if (i != row){
+                long[] ei = e[i];
+                long di = d[i];
+                for (int j = 0; j < m; j++){
+                    long num = Math.subtractExact(Math.multiplyExact(dr,ei[j]),Math.multiplyExact(di,er[j]));
+                    if (num % det != 0){
+                        throw new ArithmeticException("inexact division");
+                    }
+                    ei[j] = num/det;
+                }
+            }
+        }
+        det = dr;
+        pivot[row] = true;
+    }
+}
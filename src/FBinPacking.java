@@ -8,52 +8,119 @@ import java.util.HashMap;
  * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
  */
 public class FBinPacking{
+
+    /**
+     * The block solver used to generate the patterns
+     */
+    ABSKnapsack abs;
+
+    /**
+     * The solution of the {@link MaxMin} algorithm for the last instance
+     * solved, reduced to at most one pattern per item type, or
+     * <code>null</code> if nothing was solved yet
+     */
+    Vector<Pattern<BPItem>> previous;
+
+    /**
+     * The ratio of theta and the minimum of f(x) at the end of the last
+     * call of the {@link MaxMin} algorithm
+     */
+    double thetaRatio;
     
     /**
-     * Creates a new FBinPacking instance
+     * Creates a new FBinPacking instance using the algorithm of Lawler
+     * to generate the patterns
      * 
      */
-    public FBinPacking(){}
+    public FBinPacking(){
+        this(new ABSKnapsack());
+    }
+
+    /**
+     * Creates a new FBinPacking instance with a given block solver
+     *
+     * @param abs the block solver used to generate the patterns
+     */
+    public FBinPacking(ABSKnapsack abs){
+        this.abs = abs;
+    }
     
     /**
      * Solves the fractional bin packing up to a given precision
      *
      * @param items a list of items
      * @param epsilon the precision to be reached
-     * @return a {@link Vector} containing the used {@link Pattern}s
+     * @return a {@link Vector} containing the used {@link Pattern}s,
+     *         at most one per item type
      */
     public Vector<Pattern<BPItem>> solve(ArrayList<BPItem> items, double epsilon){
-        
+        return solve(items,epsilon,false);
+    }
+
+    /**
+     * Solves the fractional bin packing up to a given precision,
+     * starting with the solution of the last instance solved
+     *
+     * This is useful if the instance differs only slightly from the
+     * last one, as only the final scaling phase of {@link MaxMin} is
+     * performed then.
+     *
+     * @param items a list of items
+     * @param epsilon the precision to be reached
+     * @return a {@link Vector} containing the used {@link Pattern}s,
+     *         at most one per item type
+     */
+    public Vector<Pattern<BPItem>> solveWarm(ArrayList<BPItem> items, double epsilon){
+        return solve(items,epsilon,true);
+    }
+
+    /**
+     * Solves the fractional bin packing up to a given precision
+     *
+     * @param items a list of items
+     * @param epsilon the precision to be reached
+     * @param warm whether to start with the last solution
+     * @return a {@link Vector} containing the used {@link Pattern}s,
+     *         at most one per item type
+     */
+    Vector<Pattern<BPItem>> solve(ArrayList<BPItem> items, double epsilon, boolean warm){
+        final TypeIndex index = abs.getIndex(items);
+
+        // the patterns generated are stored column by column
+        PatternMatrix matrix = new PatternMatrix(index);
 
-        // create the functions given by the items
-        ArrayList<Function<Pattern<BPItem>>> fs = new ArrayList<>();
-        
-        for (BPItem i: items){
-            final BPItem item = i;
-            fs.add(new Function<Pattern<BPItem>>(){
-                    public double apply(Vector<Pattern<BPItem>> param){
-                        double sum = 0;
-                        for (Pattern<BPItem> p: param.map.keySet()){
-                            if (p.items.containsKey(item)){
-                                sum = sum+p.get(item)*param.get(p);
-                            }
-                        }
-                        sum = sum/item.multiplicity;
-                        return sum;
-                    }});
-        }
-        ABS<ArrayList<BPItem>,Pattern<BPItem>> abs = new ABSKnapsack();
         MaxMin<ArrayList<BPItem>,Pattern<BPItem>> max = new MaxMin<>(abs,items);
 
+        // restrict the last solution to the patterns of this instance
+        Vector<Pattern<BPItem>> start = new Vector<>();
+        if (warm && previous != null){
+            for (Pattern<BPItem> p: previous){
+                boolean contained = true;
+                for (BPItem it: p){
+                    if (index.indexOf(it) < 0){
+                        contained = false;
+                    }
+                }
+                if (contained){
+                    start.put(p,previous.getValue(p));
+                }
+            }
+        }
 
-        // solve the problem
-        Vector<Pattern<BPItem>> res = max.maxmin(fs,epsilon);
+        // solve the problem, the functions are given by the matrix
+        Vector<Pattern<BPItem>> res;
+        if (start.getSize() > 0){
+            start.scaleInPlace(1/start.sum());
+            res = max.maxmin(matrix,epsilon,start,thetaRatio);
+        }
+        else{
+            res = max.maxmin(matrix,epsilon);
+        }
+        thetaRatio = max.thetaRatio;
         
         // compute the minimum of the function
         double min = Double.MAX_VALUE;
-        for (Function<Pattern<BPItem>> f: fs){
-            double tmp = f.apply(res);
-
+        for (double tmp: max.values){
             if (tmp < min){
                 min = tmp;
             }
@@ -61,9 +128,15 @@ public class FBinPacking{
         // scale the result accordingly
         Vector<Pattern<BPItem>> sres = res.scale((1/min));
 
+        // return a basic solution, such that the rounding only has to
+        // round up at most one fractional pattern per item type, the
+        // reduction returns sres directly if it is basic already
         ReduceComponents red = new ReduceComponents();
-        Vector<Pattern<BPItem>> reducedRes = red.reduce(sres,items);
-        
+        Vector<Pattern<BPItem>> reducedRes = red.reduce(sres,index);
+
+        // keep the basic solution as next start, such that the patterns
+        // of former instances do not pile up
+        previous = reducedRes.scale(min);
 
         String wit = System.getenv("WITNESS");
         if (wit != null && wit.equals("true")){
@@ -74,7 +147,7 @@ public class FBinPacking{
             }
         }
 
-        return sres;
+        return reducedRes;
         
     }
 
@@ -32,7 +32,7 @@ public class FirstFit{
         HashMap<Pattern<BPItem>,Double> free = freeSpaces(sol);
         for(BPItem i: small){
             boolean found = false;
-            Pattern<BPItem> place = new Pattern<>();
+            Pattern<BPItem> place = null;
             // search for a pattern which has enough space
             for(Pattern<BPItem> p: sol){
                 if (free.get(p) >= i.size){
@@ -42,26 +42,31 @@ public class FirstFit{
             }
             // we found a fitting space
             if (found){
-                sol.put(place,sol.get(place)-1);
+                // one copy of place is replaced by place together with i
+                sol.accumulate(place,-1);
                 double freeSpace = free.get(place);
-                place.put(i,1);
-                sol.put(place,1);
-                free.put(place,freeSpace-i.size);
+                PatternBuilder<BPItem> pb = new PatternBuilder<>(place);
+                pb.put(i,1);
+                Pattern<BPItem> filled = pb.build().intern();
+                sol.accumulate(filled,1);
+                free.put(filled,freeSpace-i.size);
             }
             // we did not found a fitting space and need to open a new
             // bin
             else{
-                Pattern<BPItem> p = new Pattern<>();
-                p.put(i,1);
-                sol.put(p,1);
+                PatternBuilder<BPItem> pb = new PatternBuilder<>();
+                pb.put(i,1);
+                Pattern<BPItem> p = pb.build().intern();
+                sol.accumulate(p,1);
                 free.put(p,1-i.size);
             }
         }
         for(Pattern<BPItem> p: sol){
-            Pattern<BPItem> pw = new Pattern<>(p);
+            PatternBuilder<BPItem> pb = new PatternBuilder<>(p);
             for (BPItem i: small){
-                pw.put(i,0);
+                pb.put(i,0);
             }
+            Pattern<BPItem> pw = pb.build().intern();
             Pattern<BPItem> ptmp = p;
             Pattern<BPItem> ptmp2 = p;
             // update belongsToInvers in order to reduce its size
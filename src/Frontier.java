@@ -0,0 +1,330 @@
+import java.util.Arrays;
+
+/**
+ * This represents the subsets of items which could lead to an optimal
+ * solution of the knapsack problem, ordered by their sizes
+ *
+ * The sums of profits and sizes are stored in parallel arrays. Every
+ * subset refers to a node of a parent table, which stores the last
+ * item added and the node of the subset it was created from. The arrays
+ * are double-buffered, such that adding an item does not allocate
+ * anything unless the capacity is exceeded.
+ *
+ * Optionally, a subset is also discarded if its profit is at most a
+ * factor (1+delta) larger than the profit of a smaller subset. This
+ * loses at most this factor per item added.
+ *
+ * Two frontiers of disjoint sets of items can be joined. The nodes of
+ * the joined frontier then refer to a node of each part.
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public class Frontier{
+
+    /**
+     * The sums of the profits of the subsets
+     */
+    double[] p;
+
+    /**
+     * The sums of the sizes of the subsets
+     */
+    double[] a;
+
+    /**
+     * The nodes of the subsets or <code>-1</code> for the empty set
+     */
+    int[] node;
+
+    /**
+     * The number of subsets
+     */
+    int size;
+
+    /**
+     * The profits of the next frontier, which is merged into this
+     * buffer
+     */
+    double[] bufP;
+
+    /**
+     * The sizes of the next frontier
+     */
+    double[] bufA;
+
+    /**
+     * The nodes of the next frontier
+     */
+    int[] bufNode;
+
+    /**
+     * The items belonging to the nodes or, if this is a joined
+     * frontier, the nodes of the left part
+     */
+    int[] nodeItem;
+
+    /**
+     * The parents of the nodes or <code>-1</code> if the parent is the
+     * empty set or, if this is a joined frontier, the nodes of the
+     * right part
+     */
+    int[] nodeParent;
+
+    /**
+     * The factor used to discard subsets with nearly the same profit
+     * as a smaller subset or <code>0</code> if only dominated subsets
+     * are discarded
+     */
+    double delta;
+
+    /**
+     * The left part of a joined frontier or <code>null</code>
+     */
+    Frontier left;
+
+    /**
+     * The right part of a joined frontier or <code>null</code>
+     */
+    Frontier right;
+
+    /**
+     * The number of nodes
+     */
+    int nodes;
+
+    /**
+     * Creates a new Frontier containing just the empty set
+     *
+     */
+    public Frontier(){
+        this(0);
+    }
+
+    /**
+     * Creates a new Frontier containing just the empty set, which
+     * discards subsets whose profits are within a factor (1+delta) of
+     * the profits of smaller subsets
+     *
+     * @param delta the factor used to discard subsets
+     */
+    public Frontier(double delta){
+        this.delta = delta;
+        p = new double[16];
+        a = new double[16];
+        node = new int[16];
+        bufP = new double[16];
+        bufA = new double[16];
+        bufNode = new int[16];
+        nodeItem = new int[16];
+        nodeParent = new int[16];
+        clear();
+    }
+
+    /**
+     * Removes all subsets except the empty set
+     *
+     */
+    public void clear(){
+        p[0] = 0;
+        a[0] = 0;
+        node[0] = -1;
+        size = 1;
+        nodes = 0;
+    }
+
+    /**
+     * Returns the number of subsets
+     *
+     * @return the number of subsets
+     */
+    public int getSize(){
+        return size;
+    }
+
+    /**
+     * Adds an item to all subsets where it fits and removes the
+     * dominated subsets
+     *
+     * The subsets containing the item are created in the order of the
+     * subsets without it, such that both lists are merged in one pass.
+     *
+     * @param item the index of the item
+     * @param pj the profit of the item
+     * @param aj the size of the item
+     * @param b the capacity of the knapsack
+     */
+    public void add(int item, double pj, double aj, double b){
+        merge(this,pj,aj,b,item);
+    }
+
+    /**
+     * Computes the frontier of the union of two disjoint sets of items
+     * out of their frontiers
+     *
+     * For every subset of y, the frontier x shifted by this subset is
+     * merged into the result, where only the subsets fitting into the
+     * knapsack are considered.
+     *
+     * @param x the frontier of the first set of items
+     * @param y the frontier of the second set of items
+     * @param b the capacity of the knapsack
+     * @return the frontier of the union
+     */
+    public static Frontier join(Frontier x, Frontier y, double b){
+        Frontier res = new Frontier();
+        res.left = x;
+        res.right = y;
+
+        // the first subset of y is the empty set, which keeps x
+        res.ensureCapacity(x.size);
+        for (int i = 0; i < x.size; i++){
+            res.p[i] = x.p[i];
+            res.a[i] = x.a[i];
+            res.node[i] = -1;
+            if (x.node[i] != -1){
+                res.node[i] = res.newNode(x.node[i],-1);
+            }
+        }
+        res.size = x.size;
+
+        for (int j = 1; j < y.size; j++){
+            res.merge(x,y.p[j],y.a[j],b,y.node[j]);
+        }
+        return res;
+    }
+
+    /**
+     * Ensures that the arrays can store a given number of subsets
+     *
+     * @param capacity the number of subsets
+     */
+    void ensureCapacity(int capacity){
+        if (p.length < capacity){
+            p = Arrays.copyOf(p,capacity);
+            a = Arrays.copyOf(a,capacity);
+            node = Arrays.copyOf(node,capacity);
+        }
+    }
+
+    /**
+     * Merges a shifted copy of a frontier into this frontier and
+     * removes the dominated subsets
+     *
+     * If src is this frontier, the shifted subsets are created by
+     * adding an item, otherwise they are the union of a subset of src
+     * and a subset of the right part.
+     *
+     * @param src the frontier to be shifted
+     * @param pj the profit to shift with
+     * @param aj the size to shift with
+     * @param b the capacity of the knapsack
+     * @param other the index of the added item or the node of the
+     *        subset of the right part
+     */
+    void merge(Frontier src, double pj, double aj, double b, int other){
+        double[] srcP = src.p;
+        double[] srcA = src.a;
+        int[] srcNode = src.node;
+
+        // the subsets are ordered by their sizes
+        int shifted = 0;
+        while (shifted < src.size && srcA[shifted]+aj <= b){
+            shifted++;
+        }
+        if (shifted == 0){
+            return;
+        }
+        if (bufP.length < size+shifted){
+            int capacity = Math.max(2*bufP.length,size+shifted);
+            bufP = new double[capacity];
+            bufA = new double[capacity];
+            bufNode = new int[capacity];
+        }
+
+        int res = 0;
+        int l = 0;
+        int r = 0;
+        double prevp = Math.min(p[0],srcP[0]+pj);
+
+        // skip dominated subsets, this is possible by the ordering
+        while (l < size || r < shifted){
+            double rp = 0;
+            double ra = 0;
+            if (r < shifted){
+                rp = srcP[r]+pj;
+                ra = srcA[r]+aj;
+            }
+            if (r == shifted || (l < size && a[l] <= ra)){
+                if (keep(p[l],prevp,res)){
+                    bufP[res] = p[l];
+                    bufA[res] = a[l];
+                    bufNode[res] = node[l];
+                    res++;
+                    prevp = p[l];
+                }
+                l++;
+            }
+            else{
+                if (keep(rp,prevp,res)){
+                    bufP[res] = rp;
+                    bufA[res] = ra;
+                    if (src == this){
+                        bufNode[res] = newNode(other,srcNode[r]);
+                    }
+                    else{
+                        bufNode[res] = newNode(srcNode[r],other);
+                    }
+                    res++;
+                    prevp = rp;
+                }
+                r++;
+            }
+        }
+
+        // swap the buffers
+        double[] tmp = p;
+        p = bufP;
+        bufP = tmp;
+        tmp = a;
+        a = bufA;
+        bufA = tmp;
+        int[] tmpNode = node;
+        node = bufNode;
+        bufNode = tmpNode;
+        size = res;
+    }
+
+    /**
+     * Tests whether a subset is kept while merging
+     *
+     * @param q the profit of the subset
+     * @param prevp the profit of the last subset kept
+     * @param res the number of subsets kept
+     * @return <code>true</code> if the subset is not dominated by the
+     *         last subset kept
+     */
+    boolean keep(double q, double prevp, int res){
+        if (delta == 0){
+            return q >= prevp;
+        }
+        return res == 0 || q > (1+delta)*prevp;
+    }
+
+    /**
+     * Creates a new node in the parent table
+     *
+     * @param item the index of the item
+     * @param parent the node of the subset without the item
+     * @return the new node
+     */
+    int newNode(int item, int parent){
+        if (nodes == nodeItem.length){
+            nodeItem = Arrays.copyOf(nodeItem,2*nodes);
+            nodeParent = Arrays.copyOf(nodeParent,2*nodes);
+        }
+        nodeItem[nodes] = item;
+        nodeParent[nodes] = parent;
+        nodes++;
+        return nodes-1;
+    }
+}
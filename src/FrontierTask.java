@@ -0,0 +1,108 @@
+import java.util.ArrayList;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This computes the {@link Frontier} of a range of items by splitting
+ * the range, computing the frontiers of both parts in parallel and
+ * joining them
+ *
+ * Joining two frontiers takes time proportional to the product of
+ * their sizes, such that the range should only be split into about as
+ * many parts as there are threads.
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public class FrontierTask extends RecursiveTask<Frontier>{
+
+    /**
+     * The version of the serialized form inherited from
+     * {@link java.util.concurrent.ForkJoinTask}
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The smallest number of items which are processed without
+     * splitting
+     */
+    static final int THRESHOLD = 16;
+
+    /**
+     * The items
+     */
+    ArrayList<KPItem> is;
+
+    /**
+     * The first index of the range
+     */
+    int from;
+
+    /**
+     * The index after the last index of the range
+     */
+    int to;
+
+    /**
+     * The capacity of the knapsack
+     */
+    int b;
+
+    /**
+     * The number of items which are processed without splitting
+     */
+    int leaf;
+
+    /**
+     * The factor used to thin out the frontiers of the parts
+     */
+    double delta;
+
+    /**
+     * Creates a new FrontierTask for a range of items
+     *
+     * @param is the items
+     * @param from the first index of the range
+     * @param to the index after the last index of the range
+     * @param b the capacity of the knapsack
+     * @param leaf the number of items which are processed without
+     *        splitting
+     * @param delta the factor used to thin out the frontiers of the
+     *        parts, see {@link Frontier}
+     */
+    public FrontierTask(ArrayList<KPItem> is, int from, int to, int b, int leaf, double delta){
+        this.is = is;
+        this.from = from;
+        this.to = to;
+        this.b = b;
+        this.leaf = Math.max(leaf,THRESHOLD);
+        this.delta = delta;
+    }
+
+    /**
+     * Computes the frontier of the range
+     *
+     * @return the frontier containing all subsets of the items in the
+     *         range which could lead to an optimal solution
+     */
+    protected Frontier compute(){
+        if (to-from <= leaf){
+            Frontier f = new Frontier(delta);
+            for (int j = from; j < to; j++){
+                KPItem i = is.get(j);
+                f.add(j,i.profit*i.multiplicity,i.size*i.multiplicity,b);
+            }
+            return f;
+        }
+        int mid = (from+to)/2;
+        FrontierTask left = new FrontierTask(is,from,mid,b,leaf,delta);
+        FrontierTask right = new FrontierTask(is,mid,to,b,leaf,delta);
+        left.fork();
+        Frontier r = right.compute();
+        Frontier l = left.join();
+
+        // shift the larger frontier by the subsets of the smaller one
+        if (l.size < r.size){
+            return Frontier.join(r,l,b);
+        }
+        return Frontier.join(l,r,b);
+    }
+}
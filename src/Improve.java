@@ -9,11 +9,29 @@ import java.util.Collections;
  */
 public class Improve{
 
+    /**
+     * The solver for the fractional bin packing problems, which keeps
+     * its last solution as starting point for the next one
+     */
+    FBinPacking fbp;
+
     /**
      * Creates a new instance of Improve
      * 
      */
-    public Improve(){}
+    public Improve(){
+        this(new FBinPacking());
+    }
+
+    /**
+     * Creates a new instance of Improve with a given solver for the
+     * fractional bin packing problems
+     *
+     * @param fbp the solver for the fractional bin packing problems
+     */
+    public Improve(FBinPacking fbp){
+        this.fbp = fbp;
+    }
     
     /**
      * Improves a pair of bin packing solutions
@@ -31,7 +49,6 @@ public class Improve{
         // split x into a fixed an a variable part
         double val = (2*alpha*(1.0/delta +1))/x.sum();
         
-        Vector<Pattern<BPItem>> xv = x.scale(val);
         Vector<Pattern<BPItem>> xf = x.scale(1-val);
 
         // compute the right hand side
@@ -67,15 +84,15 @@ public class Improve{
             }
         }
 
-        // solve the problem approximately 
-        FBinPacking fbp = new FBinPacking();
-        Vector<Pattern<BPItem>> xprime = fbp.solve(redInstance,delta/2);
+        // solve the problem approximately, successive instances differ
+        // only by a few items
+        Vector<Pattern<BPItem>> xprime = fbp.solveWarm(redInstance,delta/2);
         
         Vector<Pattern<BPItem>> xres = new Vector<>();
         IVector<Pattern<BPItem>> yprime = new IVector<>();
         
         // test whether the solution is good enough already
-        if (xf.add(xprime).sum() >= x.sum()){
+        if (xf.sum()+xprime.sum() >= x.sum()){
             xres = x;
             yprime = y;
         }
@@ -119,7 +136,8 @@ public class Improve{
             }
 
             // reduce the components of xbar
-            Vector<Pattern<BPItem>> xbar = xprime.add(smallestX);
+            Vector<Pattern<BPItem>> xbar = new Vector<>(xprime);
+            xbar.addInPlace(smallestX);
             ReduceComponents rd = new ReduceComponents();
             
             xbar = rd.reduce(xbar,items);
@@ -130,15 +148,12 @@ public class Improve{
             // compute the lower half of x and y
             for (int i = l; i <  ys.size(); i++){
                 Pattern<BPItem> p = ys.get(i);
-                Double tmp = xf.get(p);
-                if (tmp == null){
-                    tmp = 0.0;
-                }
-                xnew.put(p,tmp);
+                xnew.put(p,xf.getValue(p));
                 ynew.put(p,y.get(p));
             }
 
-            xres = xnew.add(xbar);
+            xnew.addInPlace(xbar);
+            xres = xnew;
 
             // take the better rounded up values
             for (Pattern<BPItem> p: xres){
@@ -152,8 +167,8 @@ public class Improve{
         }
 
         // find a vector d with d[i] <= yprime[i]-xres[i]        
-        Vector<Pattern<BPItem>> nxres = xres.scale(-1);
-        Vector<Pattern<BPItem>> diff = yprime.toVector().add(nxres);
+        Vector<Pattern<BPItem>> diff = yprime.toVector();
+        diff.subtractInPlace(xres);
 
         IVector<Pattern<BPItem>> d = new IVector<>();
         int dsum = 0;
@@ -173,7 +188,8 @@ public class Improve{
         }
         
         // subtract d from yprime
-        IVector<Pattern<BPItem>> yres = yprime.add(d);
+        IVector<Pattern<BPItem>> yres = new IVector<>(yprime);
+        yres.addInPlace(d);
         return new Pair(xres,yres);
     }
 }
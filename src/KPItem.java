@@ -26,6 +26,12 @@ public class KPItem implements Comparable<KPItem>{
      * This is used when producing copied of the item
      */
     int multiplicity;
+
+    /**
+     * How many copies of the item may be used at most, this is
+     * <code>Integer.MAX_VALUE</code> for an unbounded item
+     */
+    int bound;
     
     /**
      * Creates a new item
@@ -35,10 +41,24 @@ public class KPItem implements Comparable<KPItem>{
      * @param size the size of the new item
      */
     public KPItem(String id, double profit, double size){
+        this(id,profit,size,Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new item which may only be used a limited number of
+     * times
+     * 
+     * @param id the name of the new item
+     * @param profit the profit of the new item
+     * @param size the size of the new item
+     * @param bound the maximal number of copies of the new item
+     */
+    public KPItem(String id, double profit, double size, int bound){
         this.id     = id;
         this.profit = profit;
         this.size   = size;
         this.multiplicity = 1;
+        this.bound = bound;
     }
 
     /**
@@ -52,6 +72,7 @@ public class KPItem implements Comparable<KPItem>{
         this.profit = o.profit;
         this.size   = o.size;
         this.multiplicity = multiplicity;
+        this.bound = o.bound;
     }
 
     /**
@@ -1,5 +1,6 @@
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Solves the unbounded knapsack problem with an algorithm by Lawler as
@@ -11,6 +12,36 @@ import java.util.Collections;
  */
 public class Knapsack{
 
+    /**
+     * Whether the subsets of the large items are computed in parallel
+     */
+    public boolean parallel = false;
+
+    /**
+     * Whether subsets of large items with nearly the same profit as a
+     * smaller subset are discarded
+     */
+    public boolean thinning = false;
+
+    /**
+     * Whether the ratio classes are split further by the rounded
+     * profits as in the original algorithm of Lawler, keeping an item
+     * of minimal size per class, otherwise only one item of maximal
+     * profit is kept per power of two
+     */
+    public boolean fullBucketing = true;
+
+    /**
+     * Whether large instances are solved on a core of items with the
+     * best ratios first
+     */
+    public boolean core = false;
+
+    /**
+     * The initial number of items in the core
+     */
+    public int coreSize = 256;
+
     /**
      * Creates a new Knapsack instance
      *
@@ -79,7 +110,7 @@ public class Knapsack{
     public double upperBound(ArrayList<KPItem> xs, int b){
         KPItem maxr = maxRatio(xs);
         KPItem maxp = maxProfit(xs);
-        int ratio = (int)(b/maxr.size);
+        int ratio = Math.min((int)(b/maxr.size),maxr.bound);
         if(ratio*maxr.size==b) {
             return (-1);
         }
@@ -91,7 +122,8 @@ public class Knapsack{
      *
      * Two items i,j are in the same class if t*2^l <= i.profit <=
      * t*2^(l+1) and t*2^l <= j.profit <= t*2^(l+1) and
-     * floor(i.profit/k*2^l)*2^l == floor(j.profit/k*2^l)*2^l
+     * floor(i.profit/k*2^l)*2^l == floor(j.profit/k*2^l)*2^l, where
+     * the last condition is only used if {@link #fullBucketing} is set
      *
      * @param large a list of items
      * @param t a parameter to split the items
@@ -102,10 +134,15 @@ public class Knapsack{
     public ArrayList<ArrayList<KPItem>> computeQ(ArrayList<KPItem> large,double t, double p, double k){
         ArrayList<ArrayList<KPItem>> q = new ArrayList<>();
         int up = (int)Math.ceil(log2(p/t))+1;
-        
+
+        // the number of rounded profits within one ratio class
+        int sub = 1;
+        if (fullBucketing){
+            sub = (int)Math.ceil(t/k)+1;
+        }
 
         // this is necessary due to Java
-        for (int i = 0; i < up;i++){
+        for (int i = 0; i < up*sub;i++){
             q.add(new ArrayList<KPItem>());
         }
 
@@ -113,39 +150,125 @@ public class Knapsack{
             
             // compute the index of the item
             int ind = (int)Math.floor(log2(i.profit/t));
+            if (fullBucketing){
+                // the profits t*2^l to t*2^(l+1) are rounded down to
+                // multiples of k*2^l
+                double scale = k*Math.pow(2,ind);
+                int r = (int)(Math.floor(i.profit/scale)-Math.floor(t/k));
+                r = Math.max(0,Math.min(sub-1,r));
+                ind = ind*sub+r;
+            }
             q.get(ind).add(i);
         }
         return q;
     }
     
     /**
-     * Reduces the ratio classes by choosing one item with maximal profit
+     * Reduces the ratio classes by choosing one item with maximal
+     * profit or, if {@link #fullBucketing} is set, with minimal size
      *
      * @param q the ratio classes produced by computeQ
      * @return a list of the best items out of every ratio class
      */
     public ArrayList<KPItem> reduceLargeItems(ArrayList<ArrayList<KPItem>> q){
+        return reduceLargeItems(q,Integer.MAX_VALUE);
+    }
+
+    /**
+     * Reduces the ratio classes by choosing the items with maximal
+     * profit or, if {@link #fullBucketing} is set, with minimal size
+     *
+     * For items with a bound, the next best items are kept as well
+     * until the bounds of the kept items allow to fill the knapsack
+     * with items of this class.
+     *
+     * @param q the ratio classes produced by computeQ
+     * @param b the capacity of the knapsack
+     * @return a list of the best items out of every ratio class
+     */
+    public ArrayList<KPItem> reduceLargeItems(ArrayList<ArrayList<KPItem>> q, int b){
         ArrayList<KPItem> res = new ArrayList<>();
         for (ArrayList<KPItem> qs: q){
             if(qs.size()>0){
-                double max = qs.get(0).profit;
-                KPItem minit = qs.get(0);
-                for(KPItem i: qs){
-                    if (i.profit > max){
-                        minit = i;
-                        max = i.profit;
+                boolean bounded = false;
+                KPItem best = qs.get(0);
+                for (KPItem i: qs){
+                    if (i.bound < Integer.MAX_VALUE){
+                        bounded = true;
+                    }
+                    if (better(i,best)){
+                        best = i;
+                    }
+                }
+
+                // a single item suffices without bounds
+                if (!bounded){
+                    res.add(best);
+                    continue;
+                }
+                ArrayList<KPItem> sorted = new ArrayList<>(qs);
+                if (fullBucketing){
+                    // the rounded profits are equal, so prefer the
+                    // smallest items
+                    Collections.sort(sorted,new java.util.Comparator<KPItem>(){
+                            public int compare(KPItem x, KPItem y){
+                                int c = Double.compare(x.size,y.size);
+                                if (c != 0){
+                                    return c;
+                                }
+                                return Double.compare(y.profit,x.profit);
+                            }});
+                }
+                else{
+                    Collections.sort(sorted,new java.util.Comparator<KPItem>(){
+                            public int compare(KPItem x, KPItem y){
+                                return Double.compare(y.profit,x.profit);
+                            }});
+                }
+
+                // the number of items of this class fitting into the
+                // knapsack
+                double mins = sorted.get(0).size;
+                for (KPItem i: sorted){
+                    mins = Math.min(mins,i.size);
+                }
+                long fit = (long)Math.floor(b/mins);
+                long copies = 0;
+                for (KPItem i: sorted){
+                    res.add(i);
+                    copies = copies+i.bound;
+                    if (copies >= fit){
+                        break;
                     }
                 }
-                res.add(minit);
             }
         }
         return res;
     }
     
+    /**
+     * Tests whether an item is preferred to another one of the same
+     * ratio class
+     *
+     * @param x an item
+     * @param y another item
+     * @return <code>true</code> if x has a smaller size or, if
+     *         {@link #fullBucketing} is not set, a larger profit than y
+     */
+    boolean better(KPItem x, KPItem y){
+        if (fullBucketing){
+            return x.size < y.size || (x.size == y.size && x.profit > y.profit);
+        }
+        return x.profit > y.profit;
+    }
+
     /**
      * Creates a list, which contains copies of items
      *
-     * For each item (p,a), we create items (p*2^l,a*2^l) until a*2^l > b
+     * For each item (p,a), we create items (p*2^l,a*2^l) until a*2^l > b.
+     * The number of copies of an item with a bound is split into
+     * powers of two and a remainder instead, such that every number of
+     * copies up to the bound can be represented.
      * @param xs a list of items
      * @param epsilon the given precision
      * @param b the capacity of the knapsack
@@ -159,6 +282,22 @@ public class Knapsack{
 
         for (KPItem i: xs){
             res.add(i);
+            if (i.bound < Integer.MAX_VALUE){
+                // at most 2^(k+1)-1 copies are needed
+                int cap = Math.min(i.bound,(1 << (k+1))-1);
+                cap = (int)Math.min(cap,Math.floor(b/i.size));
+                int used = 1;
+                int p = 2;
+                while (used+p <= cap){
+                    res.add(new KPItem(i,p));
+                    used = used+p;
+                    p = p*2;
+                }
+                if (used < cap){
+                    res.add(new KPItem(i,cap-used));
+                }
+                continue;
+            }
             int p = 2;
             for (int j = 0; j < k; j++){
                 if (i.size*p <= b){
@@ -180,6 +319,147 @@ public class Knapsack{
      *         value >= (1-epsilon)OPT
      */
     public Pattern<KPItem> lawler(ArrayList<KPItem> xs,double epsilon, int b){
+        if (core && xs.size() > coreSize){
+            return lawlerCore(xs,epsilon,b);
+        }
+        return lawlerAll(xs,epsilon,b);
+    }
+
+    /**
+     * Solve the unbounded knapsack problem via the algorithm of lawler
+     * on a core of items with the best ratios
+     *
+     * An item j outside of the core can only be part of a solution
+     * with profit at most p_j+(b-a_j)*r, where r is the best ratio of
+     * all items. If this is at most the profit of the solution of the
+     * core divided by 1-epsilon, the solution is good enough even if
+     * an optimal solution contains j. Otherwise, the core is enlarged:
+     * if only few items fail this test, they are added to the core,
+     * else the number of items with the best ratios is doubled.
+     *
+     * @param xs a list of items
+     * @param epsilon the precision to solve the problem
+     * @param b the capacity of the knapsack
+     * @return a {@link Pattern} containing the used items with 
+     *         value >= (1-epsilon)OPT
+     */
+    public Pattern<KPItem> lawlerCore(ArrayList<KPItem> xs,double epsilon, int b){
+        int n = xs.size();
+        double[] r = new double[n];
+        int[] order = new int[n];
+        double maxr = 0;
+        for (int i = 0; i < n; i++){
+            KPItem it = xs.get(i);
+            r[i] = it.profit/it.size;
+            order[i] = i;
+            maxr = Math.max(maxr,r[i]);
+        }
+        boolean[] inCore = new boolean[n];
+        int c = coreSize;
+        Pattern<KPItem> best = null;
+        double lower = -1;
+        while (true){
+            selectBest(order,r,Math.min(c,n));
+            for (int i = 0; i < Math.min(c,n); i++){
+                inCore[order[i]] = true;
+            }
+            ArrayList<KPItem> coreItems = new ArrayList<>();
+            for (int i = 0; i < n; i++){
+                if (inCore[i]){
+                    coreItems.add(xs.get(i));
+                }
+            }
+            Pattern<KPItem> res = lawlerAll(coreItems,epsilon,b);
+            double profit = 0;
+            for (KPItem it: res){
+                profit = profit+it.profit*res.count(it);
+            }
+            if (profit > lower){
+                best = res;
+                lower = profit;
+            }
+            if (coreItems.size() == n){
+                return best;
+            }
+
+            // test the items outside of the core
+            ArrayList<Integer> open = new ArrayList<>();
+            for (int i = 0; i < n; i++){
+                KPItem it = xs.get(i);
+                if (!inCore[i] && (1-epsilon)*(it.profit+(b-it.size)*maxr) > lower){
+                    open.add(i);
+                }
+            }
+            if (open.isEmpty()){
+                return best;
+            }
+            if (open.size() <= c){
+                for (int i: open){
+                    inCore[i] = true;
+                }
+            }
+            else{
+                c = 2*c;
+            }
+        }
+    }
+
+    /**
+     * Moves the items with the c best ratios to the front of an array
+     * via quickselect
+     *
+     * @param order the indices of the items
+     * @param r the ratios of the items
+     * @param c the number of items to move to the front
+     */
+    void selectBest(int[] order, double[] r, int c){
+        int lo = 0;
+        int hi = order.length-1;
+        int k = c-1;
+        while (lo < hi){
+            double pivot = r[order[(lo+hi) >>> 1]];
+            int i = lo;
+            int j = hi;
+            while (i <= j){
+                while (r[order[i]] > pivot){
+                    i++;
+                }
+                while (r[order[j]] < pivot){
+                    j--;
+                }
+                if (i <= j){
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            // the ratios at lo..j are at least the pivot, the ones at
+            // i..hi are at most the pivot
+            if (k <= j){
+                hi = j;
+            }
+            else if (k >= i){
+                lo = i;
+            }
+            else{
+                return;
+            }
+        }
+    }
+
+    /**
+     * Solve the unbounded knapsack problem via the algorithm of lawler
+     * using all items
+     *
+     * @param xs a list of items
+     * @param epsilon the precision to solve the problem
+     * @param b the capacity of the knapsack
+     * @return a {@link Pattern} containing the used items with 
+     *         value >= (1-epsilon)OPT
+     */
+    public Pattern<KPItem> lawlerAll(ArrayList<KPItem> xs,double epsilon, int b){
         
         // compute an upper bound
         double p = upperBound(xs,b);
@@ -187,14 +467,20 @@ public class Knapsack{
         // we found the optimal solution
         if (p==-1){
             KPItem max = maxRatio(xs);
-            int ratio = (int)(b/max.size);            
-            Pattern<KPItem> res = new Pattern<>();
+            int ratio = Math.min((int)(b/max.size),max.bound);
+            PatternBuilder<KPItem> res = new PatternBuilder<>();
             res.put(max,ratio);
-            return res;
+            return res.build();
         }
         else{
-            double t = (epsilon/2)*p;
-            double k = (epsilon/2)*t;
+            // a quarter of the precision is left for the thinning
+            double delta = 0;
+            double eps = epsilon;
+            if (thinning){
+                eps = 0.75*epsilon;
+            }
+            double t = (eps/2)*p;
+            double k = (eps/2)*t;
             
             // separate the large from the small items
             ArrayList<KPItem> small = new ArrayList<>();
@@ -210,55 +496,90 @@ public class Knapsack{
 
             // reduce the problem and solve it
             ArrayList<ArrayList<KPItem>> q = computeQ(large,t,p,k);
-            ArrayList<KPItem> redlarge = reduceLargeItems(q);
-            ArrayList<KPItem> multredlarge = copyItems(redlarge,epsilon,b);
-            ArrayList<Store> pairs = producePairs(multredlarge,b);
+            ArrayList<KPItem> redlarge = reduceLargeItems(q,b);
+            ArrayList<KPItem> multredlarge = copyItems(redlarge,eps,b);
+
+            // the solution loses at most a factor 1-epsilon/4 in total
+            if (thinning){
+                delta = epsilon/(4*(multredlarge.size()+1));
+            }
+            Frontier pairs;
+            if (parallel){
+                // use one part of the items per thread
+                ForkJoinPool pool = ForkJoinPool.commonPool();
+                int n = multredlarge.size();
+                int leaf = (n+pool.getParallelism()-1)/pool.getParallelism();
+                pairs = pool.invoke(new FrontierTask(multredlarge,0,n,b,leaf,delta));
+            }
+            else{
+                pairs = produceFrontier(multredlarge,b,delta);
+            }
 
 
             // find the best subset of items
-            Store max;
+            int max = 0;
             int phi = 0;
             KPItem maxsmall = null;
+            boolean bounded = false;
+            for (KPItem i: small){
+                if (i.bound < Integer.MAX_VALUE){
+                    bounded = true;
+                }
+            }
             
             // there are no small items
             if (small.isEmpty()){
-                max = pairs.get(0);
                 double profit = 0;
-                for (Store s: pairs){
-                    if(s.p > profit){
+                for (int s = 0; s < pairs.size; s++){
+                    if(pairs.p[s] > profit){
                         max = s;
-                        profit = s.p;
+                        profit = pairs.p[s];
+                    }
+                }
+            }
+            else if (bounded){
+                // fill the remaining space greedily by the ratios
+                Collections.sort(small);
+                double profit = -1;
+                for (int s = 0; s < pairs.size; s++){
+                    double temp = pairs.p[s]+fillSmall(small,b-pairs.a[s],null);
+                    if (temp > profit){
+                        max = s;
+                        profit = temp;
                     }
                 }
             }
             else{
                 maxsmall = maxRatio(small);
             
-                max = pairs.get(0);
-                phi = phi(b,maxsmall,max);
-                double profit = max.p+phi*maxsmall.profit;
-                for (Store s: pairs){
-                    int temp = phi(b,maxsmall,s);
-                    if (s.p+temp*maxsmall.profit > profit){
+                phi = phi(b,maxsmall,pairs.a[0]);
+                double profit = pairs.p[0]+phi*maxsmall.profit;
+                for (int s = 0; s < pairs.size; s++){
+                    int temp = phi(b,maxsmall,pairs.a[s]);
+                    if (pairs.p[s]+temp*maxsmall.profit > profit){
                         max = s;
                         phi = temp;
-                        profit = s.p+temp*maxsmall.profit;
+                        profit = pairs.p[s]+temp*maxsmall.profit;
                     }
                 }
             }
             
         
-            Pattern<KPItem> res = new Pattern<>();
+            PatternBuilder<KPItem> pb = new PatternBuilder<>();
             
             // compute the items belonging to the best subset
-            for(KPItem i : backtrack(max)){
-                res.add(i,i.multiplicity);
+            for(KPItem i : backtrack(pairs,max,multredlarge)){
+                pb.add(i,i.multiplicity);
             }
 
             // add the best small item
-            if(!small.isEmpty()){
-                res.add(maxsmall,phi);
+            if (bounded){
+                fillSmall(small,b-pairs.a[max],pb);
+            }
+            else if(!small.isEmpty()){
+                pb.add(maxsmall,phi);
             }
+            Pattern<KPItem> res = pb.build();
 
             String wit = System.getenv("WITNESS");
             if (wit != null && wit.equals("true")){
@@ -273,35 +594,35 @@ public class Knapsack{
     }
 
     /**
-     * Produce all subset of items which could lead to an optimal solution
+     * Produce all subset of items which could lead to an optimal
+     * solution without creating an object per subset
      * 
      * @param is a list of items
      * @param b the capacity of the knapsack
      * @return all subsets which could lead to an optimal solution
-     *         stored in {@link Store}s
+     *         stored in a {@link Frontier}
      */
-    public ArrayList<Store> producePairs(ArrayList<KPItem> is, int b){
-        ArrayList<Store> list = new ArrayList<>();
-        ArrayList<Store> nlist = new ArrayList<>();
-        list.add(new Store(0,0));
-        
-        // create new candidates
-        for (KPItem i: is){
-            double pj = i.profit*i.multiplicity;
-            double aj = i.size*i.multiplicity;
-            for(Store s: list){
-                if (s.a+aj <= b){
-                    nlist.add(new Store(s,pj,aj,i));
-                }
-            }
-
-            // eliminate dominated pairs
-
-            list = merge(list,nlist);
-            nlist.clear();
-        }        
+    public Frontier produceFrontier(ArrayList<KPItem> is, int b){
+        return produceFrontier(is,b,0);
+    }
 
-        return list;
+    /**
+     * Produce the subsets of items which could lead to an optimal
+     * solution up to a factor of (1+delta) per item
+     * 
+     * @param is a list of items
+     * @param b the capacity of the knapsack
+     * @param delta the factor used to discard subsets, see
+     *        {@link Frontier}
+     * @return the subsets stored in a {@link Frontier}
+     */
+    public Frontier produceFrontier(ArrayList<KPItem> is, int b, double delta){
+        Frontier f = new Frontier(delta);
+        for (int j = 0; j < is.size(); j++){
+            KPItem i = is.get(j);
+            f.add(j,i.profit*i.multiplicity,i.size*i.multiplicity,b);
+        }
+        return f;
     }
 
     /**
@@ -309,86 +630,92 @@ public class Knapsack{
      *
      * @param b the capacity of the knapsack
      * @param max the item to be added
-     * @param s the subset already in the knapsack
+     * @param a the size of the subset already in the knapsack
      * @return the number of times the item fits into the knapsack
      */
-    public int phi(int b, KPItem max, Store s){
-        int d = (int)(b-s.a);
-        return (int)(d/max.size);
+    public int phi(int b, KPItem max, double a){
+        // the remaining capacity is not integral for fractional sizes
+        double d = b-a;
+        int k = (int)Math.floor(d/max.size);
+
+        // correct rounding errors of the division
+        while (k > 0 && a+k*max.size > b){
+            k--;
+        }
+        return k;
     }
 
     /**
-     * Merge the list of {@link Store}s
+     * Fills a knapsack greedily with items having a bound
+     *
+     * Every item is added as often as its bound and the remaining
+     * capacity allow. This loses at most the profit of one item
+     * compared to the fractional solution.
      *
-     * @param xs the first list
-     * @param ys the second list
-     * @return all subsets out of both lists which are not dominated by another one
+     * @param xs the items ordered by their ratios
+     * @param c the capacity to fill
+     * @param res the pattern the items are added to or
+     *        <code>null</code> if only the profit is needed
+     * @return the profit of the added items
      */
-    public ArrayList<Store> merge(ArrayList<Store> xs, ArrayList<Store> ys){
-        if (ys.isEmpty()){
-            return xs;
-        }
-        ArrayList<Store> res = new ArrayList<>();
-        int l = 0;
-        int r = 0;
-        double prevp = Math.min(xs.get(0).p,ys.get(0).p);
-        
-        // iterate through the lists an skip dominated subsets
-        // this is possible by the ordering of the subsets
-        while(l < xs.size() && r < ys.size()){
-            Store left = xs.get(l);
-            Store right = ys.get(r);
-            if(left.a <= right.a){
-                if(left.p >= prevp){
-                    res.add(left);
-                    prevp = left.p;
-                }
-                l++;
+    public double fillSmall(ArrayList<KPItem> xs, double c, PatternBuilder<KPItem> res){
+        double profit = 0;
+        for (KPItem i: xs){
+            int k = (int)Math.min(i.bound,Math.floor(c/i.size));
+
+            // correct rounding errors of the division
+            while (k > 0 && k*i.size > c){
+                k--;
             }
-            else{
-                if(right.p >= prevp){
-                    res.add(right);
-                    prevp = right.p;
+            if (k > 0){
+                profit = profit+k*i.profit;
+                c = c-k*i.size;
+                if (res != null){
+                    res.add(i,k);
                 }
-                r++;
-            }
-        }
-        // all right items are packed
-        while (l < xs.size()){
-            Store left = xs.get(l);
-            if(left.p >= prevp){
-                res.add(left);
-            }
-            l++;
-
-        }
-        // all left items are packed
-        while(r < ys.size()){
-            Store right = ys.get(r);
-            if(right.p >= prevp){
-                res.add(right);
             }
-            r++;
         }
-        return res;
+        return profit;
     }
-    
+
     /**
-     * Compute all items which belong to a {@link Store}
+     * Compute all items which belong to a subset of a {@link Frontier}
      * 
-     * @param opt the store for which to extract the items
-     * @return a list of items belonging to the store
+     * @param f the frontier containing the subset
+     * @param opt the index of the subset in f
+     * @param is the items used to create f
+     * @return a list of items belonging to the subset
      */
-    public ArrayList<KPItem> backtrack(Store opt){
-        StoreTree act = opt.tree;
+    public ArrayList<KPItem> backtrack(Frontier f, int opt, ArrayList<KPItem> is){
         ArrayList<KPItem> res = new ArrayList<>();
-        while(act != null){
-            res.add(act.item);
-            act = act.next;
-        }
+        backtrackNode(f,f.node[opt],is,res);
         return res;
     }
 
+    /**
+     * Collects all items which belong to a node of a {@link Frontier}
+     *
+     * @param f the frontier containing the node
+     * @param act the node or <code>-1</code> for the empty set
+     * @param is the items used to create f
+     * @param res the list the items are added to
+     */
+    void backtrackNode(Frontier f, int act, ArrayList<KPItem> is, ArrayList<KPItem> res){
+        if (act == -1){
+            return;
+        }
+        // a joined frontier refers to a node of each part
+        if (f.left != null){
+            backtrackNode(f.left,f.nodeItem[act],is,res);
+            backtrackNode(f.right,f.nodeParent[act],is,res);
+            return;
+        }
+        while(act != -1){
+            res.add(is.get(f.nodeItem[act]));
+            act = f.nodeParent[act];
+        }
+    }
+
     /**
      * Computes the logarithm to the base of 2
      * 
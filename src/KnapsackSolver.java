@@ -0,0 +1,18 @@
+import java.util.ArrayList;
+
+/**
+ * This represents an exact solver for the unbounded knapsack problem
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public interface KnapsackSolver{
+
+    /**
+     * Solves the unbounded knapsack problem
+     * 
+     * @param xs a list of items with profit and size
+     * @param b the capacity of the knapsack
+     * @return a pattern containing the optimal solution
+     */
+    public Pattern<KPItem> solve(ArrayList<KPItem> xs, int b);
+}
@@ -0,0 +1,29 @@
+/**
+ * This represents a linear mapping from a {@link Vector} containing T
+ * to a list of numbers, given by one column per T
+ *
+ * If the functions of a {@link MaxMin} instance are linear, they can
+ * be described by a LinearOperator, such that f(y) can be computed
+ * from the few columns used by y.
+ *
+ * @param <T> the type of columns
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public interface LinearOperator<T>{
+
+    /**
+     * Returns the number of rows, i.e. of functions
+     *
+     * @return the number of rows
+     */
+    public int getRows();
+
+    /**
+     * Adds a multiple of a column to an array
+     *
+     * @param column the column to be added
+     * @param weight the value to scale the column with
+     * @param res the array of length getRows() the column is added to
+     */
+    public void addColumn(T column, double weight, double[] res);
+}
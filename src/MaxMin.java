@@ -1,5 +1,6 @@
 import java.util.ArrayList;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Solves the maxmin resource sharing problem with an algorithm by
@@ -21,6 +22,42 @@ public class MaxMin<I,T>{
      * The additional input
      */
     I input;
+
+    /**
+     * The linear operator describing the functions or <code>null</code>
+     * if the functions are treated as black boxes
+     */
+    LinearOperator<T> op;
+
+    /**
+     * The values of f(x) for the last solution computed
+     */
+    double[] values;
+
+    /**
+     * The ratio of the theta computed last and the minimum of f(x),
+     * used to find a starting point for the next computation
+     */
+    double thetaRatio;
+
+    /**
+     * The number of evaluations of the theta function performed by
+     * {@link #findTheta}
+     */
+    public long thetaIterations;
+
+    /**
+     * The number of bisection steps performed by {@link #findTheta}
+     * because a step of Halley's method left the bracket
+     */
+    public long thetaBisections;
+
+    /**
+     * Whether the starting solution is computed in parallel, this only
+     * pays off if the block solver has no closed form for the unit
+     * price vectors
+     */
+    public boolean parallelStart = false;
     
     /**
      * Creates a new MaxMin instance with a given approximative block
@@ -39,39 +76,58 @@ public class MaxMin<I,T>{
      *
      * @param t the approximation factor
      * @param theta the value for theta
-     * @param fx the list containing the results of f(x)
+     * @param fx the array containing the results of f(x)
      * @return the value of the first derivative of the theta function
      */
-    public double computeThetaF(double t, double theta, ArrayList<Double> fx){
+    public double computeThetaF(double t, double theta, double[] fx){
         double sum = 0;
-        for (double x: fx){
-            sum = sum + theta/(x-theta);
+        for (int i = 0; i < fx.length; i++){
+            sum = sum + theta/(fx[i]-theta);
         }
-        return sum*(t/fx.size());
+        return sum*(t/fx.length);
     }
     
     /**
      * Compute the optimal theta 
      *
+     * Theta lies just below the minimum of f(x), such that Halley's
+     * method is started at the same ratio to the minimum as the theta
+     * of the previous call. The root is kept in a bracket [lower,upper]
+     * and whenever a step leaves the bracket, a bisection step is used
+     * instead.
+     *
      * @param t the approximation factor
-     * @param fx the list containing the results of f(x)
+     * @param fx the array containing the results of f(x)
      * @param prec the precision for which to calculate theta
      * @return a theta with computeThetaF(t,theta,fx)=1
      */
-    public double findTheta(double t, ArrayList<Double> fx, double prec){
-        double upper = fx.get(0);
-        for(double x: fx){
-            if (x < upper){
-                upper = x;
-            }
-        }
+    public double findTheta(double t, double[] fx, double prec){
+        double minx = min(fx);
+        double upper = minx;
         double lower = 0;
-        double act = (upper+lower)/2;
+        double r = t/fx.length;
+        double act = thetaRatio*minx;
+        if (!(act > lower && act < upper)){
+            act = (upper+lower)/2;
+        }
 
-        // use binary search to find theta
         while(true){
-            act = (upper+lower)/2;
-            double val = computeThetaF(t,act,fx);
+            thetaIterations++;
+
+            // compute the theta function and its first two derivatives
+            // in one pass
+            double val = 0;
+            double der = 0;
+            double der2 = 0;
+            for (int i = 0; i < fx.length; i++){
+                double d = 1/(fx[i]-act);
+                val = val + act*d;
+                der = der + fx[i]*d*d;
+                der2 = der2 + fx[i]*d*d*d;
+            }
+            val = val*r;
+            der = der*r;
+            der2 = 2*der2*r;
             
             if(Math.abs(val-1) < prec){
                 break;
@@ -82,38 +138,63 @@ public class MaxMin<I,T>{
             else{
                 upper = act;
             }
+            double next = act-2*(val-1)*der/(2*der*der-(val-1)*der2);
+            if (!(next > lower && next < upper)){
+                thetaBisections++;
+                next = (upper+lower)/2;
+            }
+            // the bracket can not be shrunk any further
+            if (next == act || next == lower || next == upper){
+                break;
+            }
+            act = next;
         }
+        thetaRatio = act/minx;
         return act;
     }
     
     /**
      * Computes the price vector to be used by the block solver
      * 
-     * @param fx the list containing the results of f(x)
+     * @param fx the array containing the results of f(x)
      * @param t the approximation factor
      * @param theta the value given by the potential function
-     * @return the price vector
+     * @param res the array the price vector is written to
      */
-    public ArrayList<Double> computePrice(ArrayList<Double> fx, double t, double theta){
-        double r = t/fx.size();
-        ArrayList<Double> res = new ArrayList<>();
-        for(Double x: fx){
-            res.add(r*theta/(x-theta));
+    public void computePrice(double[] fx, double t, double theta, double[] res){
+        double r = t/fx.length;
+        for (int i = 0; i < fx.length; i++){
+            res[i] = r*theta/(fx[i]-theta);
         }
-        return res;
     }
 
     /**
-     * Multiply two lists of numbers with the same length
+     * Computes the scalar product of two arrays with the same length
      * 
-     * @param x the first list
-     * @param y the second list
-     * @return a list l with l.get(i)==x.get(i)*y.get(i)
+     * @param x the first array
+     * @param y the second array
+     * @return the sum of all x[i]*y[i]
      */
-    public double multiply(ArrayList<Double> x, ArrayList<Double> y){
+    public double multiply(double[] x, double[] y){
         double res = 0;
-        for(int i = 0; i < x.size(); i++){
-            res = res+x.get(i)*y.get(i);
+        for (int i = 0; i < x.length; i++){
+            res = res+x[i]*y[i];
+        }
+        return res;
+    }
+
+    /**
+     * Computes the minimum of an array
+     *
+     * @param x a non-empty array
+     * @return the smallest entry of x
+     */
+    public double min(double[] x){
+        double res = x[0];
+        for (int i = 1; i < x.length; i++){
+            if (x[i] < res){
+                res = x[i];
+            }
         }
         return res;
     }
@@ -123,27 +204,46 @@ public class MaxMin<I,T>{
      *
      * @param fs the list of {@link Function}s
      * @param x the {@link Vector} given as argument
-     * @return a list containing the values of f(x)
+     * @return an array containing the values of f(x)
      */
-    public ArrayList<Double> applyAll(ArrayList<Function<T>> fs, Vector<T> x){
-        ArrayList<Double> res = new ArrayList<>();
-        for (Function<T> f: fs){
-            res.add(f.apply(x));
+    public double[] applyAll(ArrayList<Function<T>> fs, Vector<T> x){
+        double[] res = new double[fs.size()];
+        for (int i = 0; i < res.length; i++){
+            res[i] = fs.get(i).apply(x);
         }
         return res;
     }
     
+    /**
+     * Evaluates the functions at a {@link Vector}, either by applying
+     * them or, in the linear mode, by adding up the columns used by x
+     *
+     * @param fs the list of {@link Function}s
+     * @param x the {@link Vector} given as argument
+     * @return an array containing the values of f(x)
+     */
+    public double[] evaluate(ArrayList<Function<T>> fs, Vector<T> x){
+        if (op == null){
+            return applyAll(fs,x);
+        }
+        double[] res = new double[op.getRows()];
+        for (T col: x){
+            op.addColumn(col,x.getValue(col),res);
+        }
+        return res;
+    }
+
     /**
      * Performs a line search in order to compute the step width
      *
-     * @param fx a list containing the values of f(x)
-     * @param fy a list containing the values of f(y)
+     * @param fx an array containing the values of f(x)
+     * @param fy an array containing the values of f(y)
      * @param theta the value used in the potential function
      * @param t the precision to be used in the algorithm
      * @param epsilon the approximation factor
      * @return a near-optimal step width
      */
-    public double lineSearch(ArrayList<Double> fx, ArrayList<Double> fy, double theta, double t, double epsilon){
+    public double lineSearch(double[] fx, double[] fy, double theta, double t, double epsilon){
         double up = 1.0;
         double low = 0.0;
         
@@ -153,8 +253,8 @@ public class MaxMin<I,T>{
             
             // test if the potential function is still defined
             boolean defined = true;
-            for (int i = 0; i < fx.size(); i++){
-                if (fx.get(i)+act*(fy.get(i)-fx.get(i)) <= theta){
+            for (int i = 0; i < fx.length && defined; i++){
+                if (fx[i]+act*(fy[i]-fx[i]) <= theta){
                     defined = false;
                 }
             }
@@ -178,29 +278,29 @@ public class MaxMin<I,T>{
      * Computes the value of the derivative of the simplified potential function
      *
      * @param tau the step width
-     * @param fx a list containing the values of f(x)
-     * @param fy a list containing the values of f(y)
+     * @param fx an array containing the values of f(x)
+     * @param fy an array containing the values of f(y)
      * @param t the precision of the algorithm
      * @param theta the values used in the potential function
      * @return the value of the derivative 
      */
-    public double derivativePot(double tau, ArrayList<Double> fx, ArrayList<Double> fy,double t,double theta){
+    public double derivativePot(double tau, double[] fx, double[] fy,double t,double theta){
         double res = 0;
-        for (int i = 0; i < fx.size(); i++){
-            res = res + (fy.get(i)-fx.get(i))/(fx.get(i)+tau*(fy.get(i)-fx.get(i))-theta);
+        for (int i = 0; i < fx.length; i++){
+            res = res + (fy[i]-fx[i])/(fx[i]+tau*(fy[i]-fx[i])-theta);
         }
-        return (res*t/fx.size());
+        return (res*t/fx.length);
     }
 
     /**
      * Computes the parameter which indicates when to stop
      * 
      * @param p the price vector
-     * @param fx a list containing the values of f(x)
-     * @param fy a list continaing the values of f(y)
+     * @param fx an array containing the values of f(x)
+     * @param fy an array continaing the values of f(y)
      * @return the stop parameter
      */
-    public double computeV(ArrayList<Double> p, ArrayList<Double> fx, ArrayList<Double> fy){
+    public double computeV(double[] p, double[] fx, double[] fy){
         double a = multiply(p,fy);
         double b = multiply(p,fx);
         return (a-b)/(b+a);
@@ -214,102 +314,174 @@ public class MaxMin<I,T>{
      * @param theta the value used in the potential function
      * @param v the stop parameter
      * @param price the price vector
-     * @param fx a list containing the values of f(x)
-     * @param fy a list containing the values of f(y)                            
+     * @param fx an array containing the values of f(x)
+     * @param fy an array containing the values of f(y)                            
      * @return the step width
      */
-    public double computeTau(double t, double theta, double v, ArrayList<Double> price, ArrayList<Double> fx, ArrayList<Double> fy){
+    public double computeTau(double t, double theta, double v, double[] price, double[] fx, double[] fy){
         double a = t*theta*v;
-        double b = 2*fx.size()*(multiply(price,fx)+multiply(price,fy));
+        double b = 2*fx.length*(multiply(price,fx)+multiply(price,fy));
         return a/b;
     }
     
     /**
      * Computes a starting solution for the algorithm
      *
+     * The block problems for the unit price vectors are independent and
+     * are solved on a fork-join pool if parallelStart is set.
+     *
      * @param m the number of functions
      * @return a {@link Vector} containing the starting solution
      */
     public Vector<T> computeStart(int m){
-        Vector<T> res = new Vector<>();
-        for (int i = 0; i < m; i++){
-            // solve ABS(e_m,1/2)
-            res = res.add(abs.solve(unit(i,m),0.5,input));
+        Vector<T> res;
+        if (parallelStart){
+            res = ForkJoinPool.commonPool().invoke(new StartTask<I,T>(abs,input,0,m,m));
         }
-        for (T i: res){
-            // scale the solution
-            res.put(i,res.get(i)/m);
+        else{
+            res = new Vector<>();
+            for (int i = 0; i < m; i++){
+                // solve ABS(e_m,1/2)
+                res.addInPlace(abs.solveUnit(i,m,0.5,input));
+            }
         }
+        // scale the solution
+        res.scaleInPlace(1.0/m);
         return res;
     }
 
     /**
-     * Creates a list l which contains a single 1 and 0 everywhere else
+     * Compute a solution to the maxmin resource sharing problem
+     * 
+     * @param fs the list of (convex) functions
+     * @param epsilon the precision
+     * @return a {@link Vector} containing a solution with value >= (1-epsilon)OPT
+     */
+    public Vector<T> maxmin(ArrayList<Function<T>> fs, double epsilon){
+        this.op = null;
+        return maxmin(fs,fs.size(),epsilon);
+    }
+
+    /**
+     * Compute a solution to the maxmin resource sharing problem with
+     * linear functions
+     *
+     * The values f(y) of the block solutions are computed from their
+     * columns, such that the time of an iteration does not depend on
+     * the number of columns of x.
      *
-     * @param ind the index of the 1
-     * @param m the size of the list
-     * @return a list l with l.get(ind)=1 and l.get(i)=0 for all i != ind
+     * @param op the linear operator describing the functions
+     * @param epsilon the precision
+     * @return a {@link Vector} containing a solution with value >= (1-epsilon)OPT
+     */
+    public Vector<T> maxmin(LinearOperator<T> op, double epsilon){
+        this.op = op;
+        return maxmin(null,op.getRows(),epsilon);
+    }
+
+    /**
+     * Runs all scaling phases of the algorithm
+     *
+     * @param fs the list of functions or <code>null</code> in the
+     *        linear mode
+     * @param m the number of functions
+     * @param epsilon the precision
+     * @return a {@link Vector} containing a solution with value >= (1-epsilon)OPT
      */
-    public ArrayList<Double> unit(int ind, int m){
-        ArrayList<Double> res = new ArrayList<>();
+    Vector<T> maxmin(ArrayList<Function<T>> fs, int m, double epsilon){
+        Vector<T> x = computeStart(m);
+        thetaRatio = 0;
+        return maxmin(fs,m,epsilon,x,0.25);
+    }
+
+    /**
+     * Compute a solution to the maxmin resource sharing problem with
+     * linear functions, starting with a given solution
+     *
+     * The functions which are not covered by the start are covered by
+     * mixing in the block solutions for their unit price vectors. As
+     * the start is assumed to be nearly optimal already, only the final
+     * scaling phase is performed.
+     *
+     * @param op the linear operator describing the functions
+     * @param epsilon the precision
+     * @param start a solution in the block, e.g. the result of a
+     *        previous call for a similar instance
+     * @param thetaRatio the ratio of theta and the minimum of f(x) at
+     *        the end of the previous call
+     * @return a {@link Vector} containing a solution with value >= (1-epsilon)OPT
+     */
+    public Vector<T> maxmin(LinearOperator<T> op, double epsilon, Vector<T> start, double thetaRatio){
+        this.op = op;
+        int m = op.getRows();
+        Vector<T> x = new Vector<>(start);
+        double[] fx = evaluate(null,x);
+        int uncovered = 0;
         for (int i = 0; i < m; i++){
-            if (i==ind){
-                res.add(1.0);
+            if (fx[i] <= 0){
+                uncovered++;
             }
-            else{
-                res.add(0.0);
+        }
+        if (uncovered > 0){
+            // keep x a convex combination of block solutions
+            x.scaleInPlace(1-(double) uncovered/m);
+            for (int i = 0; i < m; i++){
+                if (fx[i] <= 0){
+                    x.axpy(1.0/m,abs.solveUnit(i,m,0.5,input));
+                }
             }
         }
-        return res;
+        this.thetaRatio = thetaRatio;
+
+        // find the value of actepsilon in the final scaling phase
+        double actepsilon = 0.25;
+        while (actepsilon/2 > epsilon){
+            actepsilon = actepsilon/2;
+        }
+        return maxmin(null,m,epsilon,x,actepsilon);
     }
 
     /**
-     * Compute a solution to the maxmin resource sharing problem
-     * 
-     * @param fs the list of (convex) functions
+     * Runs the scaling phases of the algorithm starting with a given
+     * solution
+     *
+     * @param fs the list of functions or <code>null</code> in the
+     *        linear mode
+     * @param m the number of functions
      * @param epsilon the precision
+     * @param x the starting solution, which is changed
+     * @param actepsilon twice the precision of the first scaling phase
      * @return a {@link Vector} containing a solution with value >= (1-epsilon)OPT
      */
-    public Vector<T> maxmin(ArrayList<Function<T>> fs, double epsilon){
-        
-        Vector<T> x = computeStart(fs.size());
-        double actepsilon = 0.25;
-        double prec = epsilon*epsilon/fs.size();
-        ArrayList<Double> fx = applyAll(fs,x);
-        ArrayList<Double> price = null;
+    Vector<T> maxmin(ArrayList<Function<T>> fs, int m, double epsilon, Vector<T> x, double actepsilon){
+        double prec = epsilon*epsilon/m;
+        double[] fx = evaluate(fs,x);
+        double[] price = new double[m];
         // iterate over the scaling phases
         do{
             actepsilon = actepsilon/2;
             double t = epsilon/6;
-            double minx = Double.MAX_VALUE;
-            for (double fxi : fx){
-                if (fxi < minx){
-                    minx = fxi;
-                }
-            }
+            double minx = min(fx);
             // start the scaling phase
             while(true){
                 double theta = findTheta(t,fx,prec);
-                price = computePrice(fx,t,theta);
+                computePrice(fx,t,theta,price);
                 Vector<T> y = abs.solve(price,t,input);
-                ArrayList<Double> fy = applyAll(fs,y);
-                double miny = Double.MAX_VALUE;
-                for (double fyi: fy){
-                    if (fyi < miny){
-                        miny = fyi;
-                    }
-                }
+                double[] fy = evaluate(fs,y);
+                double miny = min(fy);
                 double v = computeV(price,fx,fy);
                 if (v <= t || miny >= minx*(1-actepsilon)/(1-2*actepsilon)){
                     break;
                 }
                 double tau = lineSearch(fx,fy,theta,t,epsilon);
-                ArrayList<Double> fx1 = new ArrayList<>();
-                for (int i = 0; i < fx.size(); i++){
-                    fx1.add((1-tau)*fx.get(i)+tau*fy.get(i));
+                // the functions are linear, such that fx can be updated
+                // without evaluating x again
+                for (int i = 0; i < fx.length; i++){
+                    fx[i] = (1-tau)*fx[i]+tau*fy[i];
                 }
-                x = x.scale(1-tau).add(y.scale(tau));
-                fx = fx1;
+                // update x in time proportional to the size of y
+                x.scaleInPlace(1-tau);
+                x.axpy(tau,y);
             }
         }
         while(actepsilon > epsilon);
@@ -322,6 +494,7 @@ public class MaxMin<I,T>{
                 System.exit(1);
             }
         }
+        values = fx;
         return x;
     }
 }
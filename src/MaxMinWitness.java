@@ -22,7 +22,7 @@ public class MaxMinWitness<I,T>{
      * @param epsilon the desired approximation factor
      * @return whether the solution is feasible and good enough
      */
-    boolean check(ArrayList<Double> price, ArrayList<Double> fx, double epsilon){
+    boolean check(double[] price, double[] fx, double epsilon){
         double min = Integer.MAX_VALUE;
         for (double fxi: fx){
             if (fxi < min){
@@ -31,9 +31,9 @@ public class MaxMinWitness<I,T>{
         }
         double value = 0;
         double sum = 0;
-        for (int i = 0; i < price.size(); i++){
-            value = value + price.get(i)*fx.get(i);
-            sum = sum + price.get(i);
+        for (int i = 0; i < price.length; i++){
+            value = value + price[i]*fx[i];
+            sum = sum + price[i];
         }
         return (((1+epsilon)/(1-epsilon)*min >= (1-epsilon)*value) && Math.abs(1-sum) <= epsilon);
     }
@@ -175,7 +175,7 @@ public class NewRobustRoundingFunction implements RobustRoundingFunction{
 
         for(Pattern<BPItem> p: v){
             for (int l = 0; l < v.get(p); l++){
-                Pattern<BPItem> np = new Pattern<>();
+                PatternBuilder<BPItem> np = new PatternBuilder<>();
                 for(BPItem i: p){
                     // find the original items
                     ArrayList<BPItem> g = convert.get(i);
@@ -193,7 +193,7 @@ public class NewRobustRoundingFunction implements RobustRoundingFunction{
 
                 // do not add empty patterns
                 if(!np.isEmpty()){
-                    res.put(np,Math.min(1.0,v.get(p)-l));
+                    res.put(np.build().intern(),Math.min(1.0,v.get(p)-l));
                 }
             }
         }
@@ -220,7 +220,7 @@ public class NewRobustRoundingFunction implements RobustRoundingFunction{
 
         for(Pattern<BPItem> p: v){
             for (int l = 0; l < v.get(p); l++){
-                Pattern<BPItem> np = new Pattern<>();
+                PatternBuilder<BPItem> np = new PatternBuilder<>();
                 for(BPItem i: p){
                     // find the original items
                     ArrayList<BPItem> g = convert.get(i);
@@ -239,7 +239,7 @@ public class NewRobustRoundingFunction implements RobustRoundingFunction{
                 }
                 // do not add empty pattern
                 if(!np.isEmpty()){
-                    res.put(np,(int)Math.min(1.0,v.get(p)-l));
+                    res.put(np.build().intern(),(int)Math.min(1.0,v.get(p)-l));
                 }
             }
         }
@@ -339,9 +339,9 @@ public class NewRobustRoundingFunction implements RobustRoundingFunction{
             convertInvert.put(largestFirst,newRound);
             count.put(newRound,1);
             // add a pattern containing just the new item to the solution
-            Pattern<BPItem> pa = new Pattern<>();
+            PatternBuilder<BPItem> pa = new PatternBuilder<>();
             pa.put(newRound,1);
-            pair.addPattern(pa);
+            pair.addPattern(pa.build().intern());
         }
         else{
             // we got a new largest item
@@ -349,9 +349,9 @@ public class NewRobustRoundingFunction implements RobustRoundingFunction{
                 BPItem largestOld = convertInvert.get(g.get(1));
                 BPItem largestNew = new BPItem("Rb"+counter+largestOld.id,largestFirst.size,g.size());
                 replaceAndUpdate(largestOld,largestNew,g,pair);
-                Pattern<BPItem> pa = new Pattern<>();
+                PatternBuilder<BPItem> pa = new PatternBuilder<>();
                 pa.put(largestNew,1);
-                pair.addPattern(pa);
+                pair.addPattern(pa.build().intern());
             }
             else{
                 // we got an additional copy of the rounded item
@@ -359,9 +359,9 @@ public class NewRobustRoundingFunction implements RobustRoundingFunction{
                 nlarge.multiplicity = nlarge.multiplicity+1;
                 count.put(nlarge,(int)nlarge.multiplicity);
                 // add the new item to the solution
-                Pattern<BPItem> pa = new Pattern<>();
+                PatternBuilder<BPItem> pa = new PatternBuilder<>();
                 pa.put(nlarge,1);
-                pair.addPattern(pa);
+                pair.addPattern(pa.build().intern());
             }
         }
     }
@@ -440,9 +440,9 @@ public class NewRobustRoundingFunction implements RobustRoundingFunction{
                     BPItem largest = convertInvert.get(g.get(0));
                     largest.multiplicity = largest.multiplicity + in.size();
                     count.put(largest,(int)largest.multiplicity);
-                    Pattern<BPItem> pa = new Pattern<>();
+                    PatternBuilder<BPItem> pa = new PatternBuilder<>();
                     pa.put(largest,in.size());
-                    pair.addPattern(pa);
+                    pair.addPattern(pa.build().intern());
                 
                     if (removeLast){
                         gi.remove(gi.size()-1);
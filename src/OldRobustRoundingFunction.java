@@ -164,7 +164,7 @@ public class OldRobustRoundingFunction implements RobustRoundingFunction{
 
         for(Pattern<BPItem> p: v){
             for (int l = 0; l < v.get(p); l++){
-                Pattern<BPItem> np = new Pattern<>();
+                PatternBuilder<BPItem> np = new PatternBuilder<>();
                 for(BPItem i: p){
                     // find the original items
                     ArrayList<BPItem> g = convert.get(i);
@@ -177,13 +177,13 @@ public class OldRobustRoundingFunction implements RobustRoundingFunction{
                     }
                     tmpCount.put(i,cnt);
                 }
-                res.put(np,Math.min(1.0,v.get(p)-l));
+                res.put(np.build().intern(),Math.min(1.0,v.get(p)-l));
             }
         }
         for(BPItem it: groups.get(0)){
-            Pattern<BPItem> np = new Pattern<>();
+            PatternBuilder<BPItem> np = new PatternBuilder<>();
             np.put(it,1);
-            res.put(np,1.0);
+            res.put(np.build().intern(),1.0);
         }
         return res;
     }
@@ -205,7 +205,7 @@ public class OldRobustRoundingFunction implements RobustRoundingFunction{
 
         for(Pattern<BPItem> p: v){
             for (int l = 0; l < v.get(p); l++){
-                Pattern<BPItem> np = new Pattern<>();
+                PatternBuilder<BPItem> np = new PatternBuilder<>();
                 for(BPItem i: p){
                     // find the original items
                     ArrayList<BPItem> g = convert.get(i);
@@ -220,13 +220,13 @@ public class OldRobustRoundingFunction implements RobustRoundingFunction{
                     tmpCount.put(i,cnt);
                 }
                 if(!np.isEmpty()){
-                    res.put(np,(int)Math.min(1.0,v.get(p)-l));
+                    res.put(np.build().intern(),(int)Math.min(1.0,v.get(p)-l));
                 }
             }
             for(BPItem it: groups.get(0)){
-                Pattern<BPItem> np = new Pattern<>();
+                PatternBuilder<BPItem> np = new PatternBuilder<>();
                 np.put(it,1);
-                res.put(np,1);
+                res.put(np.build().intern(),1);
             }
         }
         return res;
@@ -339,13 +339,13 @@ public class OldRobustRoundingFunction implements RobustRoundingFunction{
                 count.put(r1,1);
                 count.put(r2,1);
 
-                Pattern<BPItem> p1 = new Pattern<>();
+                PatternBuilder<BPItem> p1 = new PatternBuilder<>();
                 p1.put(r1,1);
-                pair.addPattern(p1);
+                pair.addPattern(p1.build().intern());
 
-                Pattern<BPItem> p2 = new Pattern<>();
-                p1.put(r2,1);
-                pair.addPattern(p2);
+                PatternBuilder<BPItem> p2 = new PatternBuilder<>();
+                p2.put(r2,1);
+                pair.addPattern(p2.build().intern());
 
                 // update the rounding if a rounding existed
                 if (creationCounter > 1){
@@ -37,6 +37,13 @@ public class OnlineBinPacking{
      */
     int counter;
 
+    /**
+     * The number of patterns stored by the block solver of the
+     * improvement steps, see {@link PatternPool}, or 0 to disable the
+     * pool
+     */
+    public int poolSize = 0;
+
     /**
      * Creates a new instance of OnlineBinPacking
      *
@@ -147,12 +154,15 @@ public class OnlineBinPacking{
         }
         show();
         HashMap<Pattern<BPItem>,Pattern<BPItem>> belongsToInvers = ff.belongsToInvers;
+
+        // improve the solution!
+        Improve imp = new Improve();
+        if (poolSize > 0){
+            imp = new Improve(new FBinPacking(new ABSKnapsack(poolSize)));
+        }
         
         while(true){
             before = System.currentTimeMillis();
-
-            // improve the solution!
-            Improve imp = new Improve();
             
             // pack the new item
             boolean isSmall= true;
@@ -34,21 +34,9 @@ public class Pair{
      * @param p the pattern to be added
      */
     public void addPattern(Pattern<BPItem> p){
-        Integer tmpi = integral.get(p);
-        // check whether the pattern is already present
-        int tmp = 0;
-        if (tmpi != null){
-            tmp = tmpi;
-        }
-        integral.put(p,1+tmp);
-
-        // check whether the pattern is already present
-        Double di = fractional.get(p);
-        double d = 0.0;
-        if (di != null){
-            d = di;
-        }
-        fractional.put(p,1+d);
+        // an absent pattern is stored with value 0
+        integral.put(p,1+integral.getValue(p));
+        fractional.put(p,1+fractional.getValue(p));
     }
 
     /**
@@ -65,7 +53,7 @@ public class Pair{
 
         for (Pattern<BPItem> p: fractional){
             if (p.get(oldItem) != null){
-                Pattern<BPItem> pn = new Pattern<>();
+                PatternBuilder<BPItem> pn = new PatternBuilder<>();
                 for (BPItem it: p){
                     if (!it.equals(oldItem)){
                         pn.put(it,p.get(it));
@@ -76,12 +64,13 @@ public class Pair{
                         }
                     }
                 }
+                // merge the weight with an equal pattern
                 if (!pn.isEmpty()){
-                    fnew.put(pn,fractional.get(p));
+                    fnew.accumulate(pn.build().intern(),fractional.getValue(p));
                 }
             }
             else{
-                fnew.put(p,fractional.get(p));
+                fnew.accumulate(p,fractional.getValue(p));
             }
         }
 
@@ -89,7 +78,7 @@ public class Pair{
         IVector<Pattern<BPItem>> inew = new IVector<>();            
         for (Pattern<BPItem> p: integral){
             if (p.get(oldItem) != null){
-                Pattern<BPItem> pn = new Pattern<>();
+                PatternBuilder<BPItem> pn = new PatternBuilder<>();
                 for (BPItem it: p){
                     if (!it.equals(oldItem)){
                         pn.put(it,p.get(it));
@@ -101,12 +90,13 @@ public class Pair{
                     }
                 }
 
+                // merge the number with an equal pattern
                 if (!pn.isEmpty()){
-                    inew.put(pn,integral.get(p));
+                    inew.accumulate(pn.build().intern(),integral.getValue(p));
                 }
             }
             else{
-                inew.put(p,integral.get(p));
+                inew.accumulate(p,integral.getValue(p));
             }
         }
 
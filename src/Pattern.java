@@ -1,8 +1,17 @@
-import java.util.HashMap;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.WeakHashMap;
 
 /**
- * This represents a collection which associates values with integers
+ * This represents an immutable collection which associates values with
+ * integers
+ *
+ * The values are stored ordered by their hash codes together with the
+ * integers in primitive arrays. The hash code of the pattern is
+ * computed once. Patterns are created via a {@link PatternBuilder} and
+ * can be interned, such that equal interned patterns are identical.
  *
  * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
  * @param <T> the type of values stored
@@ -10,61 +19,110 @@ import java.util.Iterator;
 public class Pattern<T> implements Iterable<T>{
 
     /**
-     * The HashMap storing the values
+     * The canonical instances of all interned patterns
      */
-    HashMap<T,Integer> items;
-    
+    static final WeakHashMap<Pattern<?>,WeakReference<Pattern<?>>> pool = new WeakHashMap<>();
+
     /**
-     * Creates a new Pattern which does not store anything
-     *
+     * The stored values ordered by their hash codes
      */
-    public Pattern(){
-        items = new HashMap<T,Integer>();
-    }
+    final Object[] keys;
 
     /**
-     * Creates a new Pattern as a copy of a pattern
+     * The hash codes of the stored values
+     */
+    final int[] hashes;
+
+    /**
+     * The integers stored under the values
+     */
+    final int[] counts;
+
+    /**
+     * The hash code of the pattern
+     */
+    final int hash;
+
+    /**
+     * Whether this is the canonical instance of its pattern
+     */
+    boolean interned;
+
+    /**
+     * Creates a new Pattern out of values ordered by their hash codes
      *
-     * @param p the pattern to be copied
+     * @param keys the values to be stored
+     * @param hashes the hash codes of the values
+     * @param counts the integers to be stored under the values
      */
-    public Pattern(Pattern<T> p){
-        items = new HashMap<T,Integer>();
-        for (T t: p){
-            items.put(t,p.get(t));
+    Pattern(Object[] keys, int[] hashes, int[] counts){
+        this.keys = keys;
+        this.hashes = hashes;
+        this.counts = counts;
+        int sum = 0;
+        for (int i = 0; i < keys.length; i++){
+            // mix every entry on its own such that the sum does not
+            // depend on the ordering
+            int e = hashes[i] ^ (counts[i]*0x9E3779B9);
+            e = (e ^ (e >>> 16))*0x85EBCA6B;
+            sum = sum + (e ^ (e >>> 13));
         }
+        this.hash = sum;
+        this.interned = false;
     }
-    
+
     /**
-     * Adds a value and a number to the stored values
-     * 
-     * @param a the value to be stored as key
-     * @param n the integers to be stored under the key
+     * Returns the canonical instance of this pattern
+     *
+     * @return an interned pattern which equals this pattern
      */
-    public void put(T a,int n){
-        if(n==0){
-            items.remove(a);
+    public Pattern<T> intern(){
+        if (interned){
+            return this;
         }
-        else{
-            items.put(a,n);
+        synchronized(pool){
+            WeakReference<Pattern<?>> ref = pool.get(this);
+            if (ref != null){
+                // the pool only stores patterns equal to their key
+                @SuppressWarnings("unchecked")
+                Pattern<T> p = (Pattern<T>) ref.get();
+                if (p != null){
+                    return p;
+                }
+            }
+            interned = true;
+            pool.put(this,new WeakReference<Pattern<?>>(this));
+            return this;
         }
     }
 
     /**
-     * Either adds a value and a number to the stored values or
-     * increases the number if the value is already present
+     * Finds the position of a value
      *
-     * @param a the value to be stored as key
-     * @param n the integers to be stored under the key
+     * @param a the value to look for
+     * @return the position of a or <code>-1</code> if a is not stored
      */
-    public void add(T a, int n){
-        if (items.containsKey(a)) {
-            put(a,items.get(a)+n);
+    int find(Object a){
+        if (a == null){
+            return -1;
+        }
+        int h = a.hashCode();
+        int i = Arrays.binarySearch(hashes,h);
+        if (i < 0){
+            return -1;
         }
-        else{
-            put(a,n);
+        // several values may share the hash code
+        while (i > 0 && hashes[i-1] == h){
+            i--;
         }
+        for (; i < hashes.length && hashes[i] == h; i++){
+            if (keys[i].equals(a)){
+                return i;
+            }
+        }
+        return -1;
     }
-        
+
     /**
      * Returns the value stored under a index
      *
@@ -73,57 +131,67 @@ public class Pattern<T> implements Iterable<T>{
      * if no number is stored
      */
     public Integer get(T a){
-        return items.get(a);
+        int i = find(a);
+        if (i < 0){
+            return null;
+        }
+        return counts[i];
     }
-    
+
     /**
-     * Either adds a value and a <code>1</code> or adds <code>1</code>
-     * if it is already stored
+     * Returns the value stored under a index without boxing it
      *
-     * @param a the index to be added
+     * @param a the index to look at
+     * @return the integer which is stored under t or <code>0</code> if
+     * no number is stored
      */
-    public void addOrIncrease(T a){
-        add(a,1);
+    public int count(T a){
+        int i = find(a);
+        if (i < 0){
+            return 0;
+        }
+        return counts[i];
     }
-    
+
     /**
      * Compares this with another object
-     * 
+     *
+     * Two different interned patterns are never equal, such that only
+     * patterns which are not interned need to be compared entrywise.
+     *
      * @param o the object to compare with
      * @return <code>true</code> if the other object is a pattern which
      *         stores the same elements and the same integers;
      *         <code>false</code> otherwise.
      */
     public boolean equals(Object o){
-        boolean b = false;
-        if (o instanceof Pattern){
-
-            // We can not check generic conversion
-            @SuppressWarnings("unchecked")
-            Pattern<T> p = (Pattern<T>) o;
-            if (p.items.keySet().equals(items.keySet())){
-                b = true;
-                for (T t: items.keySet()){
-                    if (p.get(t)!=get(t)){
-                        b = false;
-                    }
-                }
+        if (this == o){
+            return true;
+        }
+        if (!(o instanceof Pattern)){
+            return false;
+        }
+        Pattern<?> p = (Pattern<?>) o;
+        if ((interned && p.interned) || hash != p.hash || !Arrays.equals(hashes,p.hashes)){
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++){
+            int j = p.find(keys[i]);
+            if (j < 0 || p.counts[j] != counts[i]){
+                return false;
             }
         }
-        return b;
+        return true;
     }
 
     /**
-     * Computes the hash code of the pattern
+     * Returns the hash code of the pattern
      *
-     * @return a linear combinator of the hash codes of the stored values
+     * @return a combination of the hash codes of the stored values and
+     *         their integers, computed on creation
      */
     public int hashCode(){
-        int sum = 0;
-        for (T t: items.keySet()){
-            sum = items.get(t)*t.hashCode();
-        }
-        return sum;
+        return hash;
     }
 
     /**
@@ -132,7 +200,24 @@ public class Pattern<T> implements Iterable<T>{
      * @return an {@link Iterator} iterating over the indices
      */
     public Iterator<T> iterator(){
-        return items.keySet().iterator();
+        return new Iterator<T>(){
+
+            // the next position to return
+            int next = 0;
+
+            public boolean hasNext(){
+                return next < keys.length;
+            }
+
+            @SuppressWarnings("unchecked")
+            public T next(){
+                if (next >= keys.length){
+                    throw new NoSuchElementException();
+                }
+                next++;
+                return (T) keys[next-1];
+            }
+        };
     }
 
     /**
@@ -141,11 +226,15 @@ public class Pattern<T> implements Iterable<T>{
      * @return true if no value is stored in the pattern
      */
     public boolean isEmpty(){
-        return items.keySet().isEmpty();
+        return keys.length == 0;
     }
-}
-
-
-
-
 
+    /**
+     * Returns the number of stored values
+     *
+     * @return the number of values with a non-zero integer
+     */
+    public int getSize(){
+        return keys.length;
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This is used to construct an immutable {@link Pattern} by
+ * associating values with integers step by step
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ * @param <T> the type of values stored
+ */
+public class PatternBuilder<T>{
+
+    /**
+     * The HashMap storing the values
+     */
+    HashMap<T,Integer> items;
+
+    /**
+     * Creates a new PatternBuilder which does not store anything
+     *
+     */
+    public PatternBuilder(){
+        items = new HashMap<T,Integer>();
+    }
+
+    /**
+     * Creates a new PatternBuilder which stores the values of a pattern
+     *
+     * @param p the pattern to be copied
+     */
+    public PatternBuilder(Pattern<T> p){
+        items = new HashMap<T,Integer>();
+        for (T t: p){
+            items.put(t,p.count(t));
+        }
+    }
+
+    /**
+     * Adds a value and a number to the stored values
+     *
+     * @param a the value to be stored as key
+     * @param n the integers to be stored under the key
+     */
+    public void put(T a,int n){
+        if(n==0){
+            items.remove(a);
+        }
+        else{
+            items.put(a,n);
+        }
+    }
+
+    /**
+     * Either adds a value and a number to the stored values or
+     * increases the number if the value is already present
+     *
+     * @param a the value to be stored as key
+     * @param n the integers to be stored under the key
+     */
+    public void add(T a, int n){
+        if (items.containsKey(a)) {
+            put(a,items.get(a)+n);
+        }
+        else{
+            put(a,n);
+        }
+    }
+
+    /**
+     * Returns the value stored under a index
+     *
+     * @param a the index to look at
+     * @return the integer which is stored under t or <code>null</null>
+     * if no number is stored
+     */
+    public Integer get(T a){
+        return items.get(a);
+    }
+
+    /**
+     * Either adds a value and a <code>1</code> or adds <code>1</code>
+     * if it is already stored
+     *
+     * @param a the index to be added
+     */
+    public void addOrIncrease(T a){
+        add(a,1);
+    }
+
+    /**
+     * Tests whether no value is stored
+     *
+     * @return true if no value is stored
+     */
+    public boolean isEmpty(){
+        return items.isEmpty();
+    }
+
+    /**
+     * Creates the pattern containing the stored values
+     *
+     * @return a new {@link Pattern} storing the values and integers
+     */
+    public Pattern<T> build(){
+        int n = items.size();
+        Object[] keys = items.keySet().toArray();
+
+        // order the values by their hash codes
+        long[] order = new long[n];
+        for (int i = 0; i < n; i++){
+            order[i] = ((long) keys[i].hashCode() << 32) | i;
+        }
+        Arrays.sort(order);
+
+        Object[] sortedKeys = new Object[n];
+        int[] hashes = new int[n];
+        int[] counts = new int[n];
+        for (int i = 0; i < n; i++){
+            Object key = keys[(int) order[i]];
+            sortedKeys[i] = key;
+            hashes[i] = (int) (order[i] >> 32);
+            counts[i] = items.get(key);
+        }
+        return new Pattern<T>(sortedKeys,hashes,counts);
+    }
+}
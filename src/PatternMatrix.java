@@ -0,0 +1,170 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This stores the columns, i.e. {@link Pattern}s, of a bin packing
+ * instance in a compressed sparse column format
+ *
+ * The columns are added on demand, such that the matrix grows with the
+ * patterns generated by {@link MaxMin}.
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public class PatternMatrix implements LinearOperator<Pattern<BPItem>>{
+
+    /**
+     * The item types of the instance, corresponding to the rows
+     */
+    TypeIndex index;
+
+    /**
+     * A mapping from the stored patterns to their columns
+     */
+    HashMap<Pattern<BPItem>,Integer> columnOf;
+
+    /**
+     * The stored patterns ordered by their columns
+     */
+    ArrayList<Pattern<BPItem>> columns;
+
+    /**
+     * The non-zero entries of column j are stored at the positions
+     * colStart[j] to colStart[j+1]-1 of rows and values
+     */
+    int[] colStart;
+
+    /**
+     * The rows of the non-zero entries
+     */
+    int[] rows;
+
+    /**
+     * The values of the non-zero entries
+     */
+    int[] values;
+
+    /**
+     * The number of non-zero entries
+     */
+    int nnz;
+
+    /**
+     * The inverse multiplicities of the item types
+     */
+    double[] scale;
+
+    /**
+     * Creates a new PatternMatrix without columns
+     *
+     * @param index the item types of the instance
+     */
+    public PatternMatrix(TypeIndex index){
+        this.index = index;
+        int m = index.size();
+        columnOf = new HashMap<>();
+        columns = new ArrayList<>();
+        colStart = new int[16];
+        rows = new int[16];
+        values = new int[16];
+        nnz = 0;
+        scale = new double[m];
+        for (int i = 0; i < m; i++){
+            scale[i] = 1/index.get(i).multiplicity;
+        }
+    }
+
+    /**
+     * Returns the number of rows, i.e. of item types
+     *
+     * @return the number of rows
+     */
+    public int getRows(){
+        return scale.length;
+    }
+
+    /**
+     * Returns the number of stored columns
+     *
+     * @return the number of columns
+     */
+    public int getColumns(){
+        return columns.size();
+    }
+
+    /**
+     * Returns the column of a pattern and adds the pattern if it is not
+     * stored yet
+     *
+     * @param p the pattern
+     * @return the column of p
+     */
+    public int column(Pattern<BPItem> p){
+        Integer c = columnOf.get(p);
+        if (c != null){
+            return c;
+        }
+        int col = columns.size();
+
+        // append the non-zero entries of the column, without a dense
+        // encoding of the pattern
+        if (col+2 > colStart.length){
+            colStart = Arrays.copyOf(colStart,2*colStart.length);
+        }
+        for (int k = 0; k < p.keys.length; k++){
+            int i = index.indexOf((BPItem) p.keys[k]);
+            if (i >= 0 && p.counts[k] != 0){
+                if (nnz == rows.length){
+                    rows = Arrays.copyOf(rows,2*rows.length);
+                    values = Arrays.copyOf(values,2*values.length);
+                }
+                rows[nnz] = i;
+                values[nnz] = p.counts[k];
+                nnz++;
+            }
+        }
+        colStart[col+1] = nnz;
+        columns.add(p);
+        columnOf.put(p,col);
+        return col;
+    }
+
+    /**
+     * Adds a multiple of the column of a pattern, divided by the
+     * multiplicities of the item types, to an array
+     *
+     * @param p the pattern
+     * @param weight the value to scale the column with
+     * @param res the array the column is added to
+     */
+    public void addColumn(Pattern<BPItem> p, double weight, double[] res){
+        int c = column(p);
+        for (int k = colStart[c]; k < colStart[c+1]; k++){
+            res[rows[k]] = res[rows[k]]+values[k]*weight*scale[rows[k]];
+        }
+    }
+
+    /**
+     * Computes the values of all item functions, i.e. the number of
+     * times each item type is covered divided by its multiplicity, in
+     * a single pass over the non-zero entries of the columns used by x
+     *
+     * @param x a vector of patterns
+     * @return an array a such that a[i] is the value of the function
+     *         belonging to the item type with index i
+     */
+    public double[] multiply(Vector<Pattern<BPItem>> x){
+        double[] res = new double[scale.length];
+        for (Pattern<BPItem> p: x){
+            int c = column(p);
+            double w = x.getValue(p);
+            for (int k = colStart[c]; k < colStart[c+1]; k++){
+                res[rows[k]] = res[rows[k]]+values[k]*w;
+            }
+        }
+        for (int i = 0; i < res.length; i++){
+            res[i] = res[i]*scale[i];
+        }
+        return res;
+    }
+}
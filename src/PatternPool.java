@@ -0,0 +1,169 @@
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This stores the patterns generated recently by a block solver, such
+ * that a stored pattern can be used again if it is good enough for a
+ * new price vector
+ *
+ * The patterns are stored densely, one row of counts per pattern, and
+ * all of them are scored against the prices in a single pass. If the
+ * pool is full, the least recently used pattern is replaced.
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public class PatternPool{
+
+    /**
+     * The number of times a stored pattern was good enough
+     */
+    public long hits;
+
+    /**
+     * The number of times no stored pattern was good enough
+     */
+    public long misses;
+
+    /**
+     * The maximal number of stored patterns
+     */
+    int capacity;
+
+    /**
+     * The item types of the instance the patterns belong to
+     */
+    TypeIndex index;
+
+    /**
+     * The number of item types
+     */
+    int m;
+
+    /**
+     * The stored patterns
+     */
+    Pattern<BPItem>[] patterns;
+
+    /**
+     * The counts of the item types, the counts of the pattern in slot
+     * s are stored at the positions s*m to s*m+m-1
+     */
+    int[] counts;
+
+    /**
+     * The time of the last use of the pattern in every slot
+     */
+    long[] lastUsed;
+
+    /**
+     * The number of stored patterns
+     */
+    int size;
+
+    /**
+     * The current time, i.e. the number of lookups and insertions
+     */
+    long time;
+
+    /**
+     * A mapping from the stored patterns to their slots
+     */
+    HashMap<Pattern<BPItem>,Integer> slotOf;
+
+    /**
+     * Creates a new empty PatternPool
+     *
+     * @param capacity the maximal number of stored patterns
+     */
+    @SuppressWarnings("unchecked")
+    public PatternPool(int capacity){
+        this.capacity = capacity;
+        patterns = (Pattern<BPItem>[]) new Pattern<?>[capacity];
+        lastUsed = new long[capacity];
+        slotOf = new HashMap<>();
+        counts = new int[0];
+    }
+
+    /**
+     * Returns the stored pattern with the largest profit if its profit
+     * is at least a given value
+     *
+     * @param w the profits of the item types
+     * @param threshold the profit the pattern needs to have
+     * @return the best stored pattern if it is good enough;
+     *         <code>null</code> otherwise
+     */
+    public synchronized Pattern<BPItem> find(double[] w, double threshold){
+        time++;
+        int best = -1;
+        double max = Double.NEGATIVE_INFINITY;
+        for (int s = 0; s < size; s++){
+            double v = 0;
+            int off = s*m;
+            for (int i = 0; i < m; i++){
+                v = v+counts[off+i]*w[i];
+            }
+            if (v > max){
+                max = v;
+                best = s;
+            }
+        }
+        if (best == -1 || max < threshold){
+            misses++;
+            return null;
+        }
+        hits++;
+        lastUsed[best] = time;
+        return patterns[best];
+    }
+
+    /**
+     * Adds a pattern, replacing the least recently used one if the pool
+     * is full
+     *
+     * @param p the pattern
+     * @param dense the counts of the item types in p
+     */
+    public synchronized void add(Pattern<BPItem> p, int[] dense){
+        time++;
+        Integer slot = slotOf.get(p);
+        if (slot != null){
+            lastUsed[slot] = time;
+            return;
+        }
+        int s = size;
+        if (size < capacity){
+            size++;
+        }
+        else{
+            // replace the least recently used pattern
+            s = 0;
+            for (int i = 1; i < size; i++){
+                if (lastUsed[i] < lastUsed[s]){
+                    s = i;
+                }
+            }
+            slotOf.remove(patterns[s]);
+        }
+        patterns[s] = p;
+        System.arraycopy(dense,0,counts,s*m,m);
+        lastUsed[s] = time;
+        slotOf.put(p,s);
+    }
+
+    /**
+     * Removes all stored patterns to store patterns of a new instance,
+     * the counters are kept
+     *
+     * @param index the item types of the new instance
+     */
+    public synchronized void reset(TypeIndex index){
+        this.index = index;
+        m = index.size();
+        counts = new int[capacity*m];
+        Arrays.fill(patterns,null);
+        slotOf.clear();
+        size = 0;
+        time = 0;
+    }
+}
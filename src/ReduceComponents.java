@@ -7,6 +7,35 @@ import java.util.ArrayList;
  */
 
 public class ReduceComponents{
+
+    /**
+     * The engine computing a kernel vector via a singular value
+     * decomposition in every step
+     */
+    public static final int SVD = 0;
+
+    /**
+     * The engine updating an elimination matrix of the active columns
+     * in every step
+     */
+    public static final int INCREMENTAL = 1;
+
+    /**
+     * The incremental engine storing the columns in a compressed
+     * sparse column format
+     */
+    public static final int SPARSE = 2;
+
+    /**
+     * The incremental engine computing the kernel vectors exactly with
+     * a fraction-free elimination over longs
+     */
+    public static final int EXACT = 3;
+
+    /**
+     * The engine used to reduce the solutions
+     */
+    public int engine = SPARSE;
     
     /**
      * Creates a new ReduceComponents instance
@@ -25,26 +54,33 @@ public class ReduceComponents{
      * @return a matrix corresponding to the columns used in the solution
      */
     public RealMatrix convertToMatrix(Vector<Pattern<BPItem>> v, ArrayList<BPItem> items){
+        return convertToMatrix(v,new TypeIndex(items));
+    }
+
+    /**
+     * Converts a bin packing instance given by the indices of its item
+     * types and a solution to it into the corresponding matrix
+     *
+     * @param v the solution of the problem
+     * @param index the item types of the instance
+     * @return a matrix corresponding to the columns used in the solution
+     */
+    public RealMatrix convertToMatrix(Vector<Pattern<BPItem>> v, TypeIndex index){
         int n = v.getSize();
-        int m = items.size();
-        RealMatrix a = new Array2DRowRealMatrix(m,n);
+        int m = index.size();
+        double[][] a = new double[m][n];
         int i = 0;
-        // start the converting
+        // start the converting, the dense representation of a pattern
+        // is its column
         for (Pattern<BPItem> p: v){
-            for(int j=0; j < items.size(); j++){
-                BPItem it = items.get(j);
-                Integer val = p.get(it);
-                if (val != null){
-                    a.setEntry(j,i,val);
-                }
-                else{
-                    a.setEntry(j,i,0);
-                }
+            int[] col = index.encode(p);
+            for(int j=0; j < m; j++){
+                a[j][i] = col[j];
             }
             i++;
         }
         
-        return a;
+        return new Array2DRowRealMatrix(a,false);
     }
     
     /**
@@ -113,26 +149,57 @@ public class ReduceComponents{
         if(v.getSize() <= items.size()){
             return v;
         }
+        return reduce(v,new TypeIndex(items));
+    }
+
+    /**
+     * Reduces the number of non-zero entries of a bin packing solution
+     * 
+     * @param v the bin packing solution
+     * @param index the item types of the bin packing instance
+     * @return a vector containing a solution with less non-zero entries
+     * and the same objective value
+     */
+    public Vector<Pattern<BPItem>> reduce(Vector<Pattern<BPItem>> v, TypeIndex index){
+        // Do we need to do something
+        if(v.getSize() <= index.size()){
+            return v;
+        }
+        if (engine == INCREMENTAL){
+            return reduceIncremental(v,index);
+        }
+        if (engine == SPARSE){
+            return reduceSparse(v,index);
+        }
+        if (engine == EXACT){
+            return reduceExact(v,index);
+        }
 
         // Create the linear equation system
-        RealMatrix matrix = convertToMatrix(v,items);
+        RealMatrix matrix = convertToMatrix(v,index);
         double[] y = convertToArray(v);
         int n = matrix.getColumnDimension();
         int m = matrix.getRowDimension();
-        int[] rows = createRow(m,1);
+        int[] rows = new int[m];
+        for (int i = 0; i < m; i++){
+            rows[i] = i;
+        }
 
-        // describes which columns are currently active in the equation
-        // system
-        int[] columns = createRow(n,0);
+        // the indices of the m+1 columns which are currently active in
+        // the equation system
+        int[] columns = new int[m+1];
         for (int i = 0; i < m+1; i++){
-            columns[i] = 1;
+            columns[i] = i;
         }
         
         // reduce all superfluous non-zero entries
         int counter = m+1;
-        while (counter < n){
-            // get the corresponding submatrix of the matrix
-            RealMatrix sub = matrix.getSubMatrix(rows,columns);
+        while (true){
+            // get the corresponding submatrix of the matrix, padded with
+            // a zero row such that the decomposition yields all m+1
+            // right singular vectors
+            RealMatrix sub = new Array2DRowRealMatrix(m+1,m+1);
+            sub.setSubMatrix(matrix.getSubMatrix(rows,columns).getData(),0,0);
             
             // factorize the matrix into its singular vectors
             SingularValueDecomposition svd = new SingularValueDecomposition(sub);
@@ -140,37 +207,361 @@ public class ReduceComponents{
             // extract the right singular vectors
             RealMatrix vs = svd.getV();
             
-            // the kernel of sub is described by the last columns of vs
-            double[] z = vs.getColumn(vs.getColumnDimension()-1);
+            // the singular values are ordered decreasingly, such that the
+            // kernel of sub contains the last column of vs
+            double[] z = vs.getColumn(m);
+
+            // move in the direction not increasing the number of bins
+            double g = 0;
+            for (int k = 0; k < m+1; k++){
+                g = g+z[k];
+            }
+            if (g < 0){
+                for (int k = 0; k < m+1; k++){
+                    z[k] = -z[k];
+                }
+            }
             
-            // find an i such that |y[i]/z[i]| is minimal
-            double sigma = (double) Integer.MAX_VALUE;
+            // find a k with z[k] > 0 such that y[k]/z[k] is minimal
+            double sigma = Double.MAX_VALUE;
             int sigmaCol = 0;
-            for (int j=0; j < n;j++){
-                if(columns[j] == 1){
-                    if (Math.abs(y[j]/z[j]) <= Math.abs(sigma)){
-                        sigma = - Math.abs(y[j]/z[j]);
-                        sigmaCol = j;
-                    }
+            for (int k = 0; k < m+1; k++){
+                if (z[k] > 0 && y[columns[k]]/z[k] < sigma){
+                    sigma = y[columns[k]]/z[k];
+                    sigmaCol = k;
                 }
             }
             
             // reduce the components
-            for (int j = 0; j < n; j++){
-                if (columns[j] == 1){
-                    y[j] = y[j]+sigma*z[j];
-                }
+            for (int k = 0; k < m+1; k++){
+                y[columns[k]] = Math.max(0,y[columns[k]]-sigma*z[k]);
             }
 
             // the component corresponding to sigmaCol is reduced to
-            // zero
-            columns[sigmaCol] = 0;
-            columns[counter] = 1;
+            // zero and replaced by the next column
+            y[columns[sigmaCol]] = 0;
+            if (counter == n){
+                break;
+            }
+            columns[sigmaCol] = counter;
             counter++;
         }
         
         Vector<Pattern<BPItem>> res = convertFromArray(v,y);
         return res;
     }
-}
 
+    /**
+     * Reduces the number of non-zero entries of a bin packing solution
+     * by adding its columns one after another to a set of linearly
+     * independent columns
+     *
+     * If a column is a linear combination of the stored columns, this
+     * yields a kernel vector. The solution is moved along it, in the
+     * direction not increasing the number of bins, until a component
+     * becomes zero. If this is a stored column, it is replaced by the
+     * new one via a single pivot step of an {@link Elimination}. Every
+     * column thus costs O(m^2) instead of a decomposition of the whole
+     * submatrix.
+     *
+     * @param v the bin packing solution
+     * @param index the item types of the bin packing instance
+     * @return a vector containing a solution with at most m non-zero
+     *         entries, covering every item type as often as v and
+     *         using at most as many bins
+     */
+    public Vector<Pattern<BPItem>> reduceIncremental(Vector<Pattern<BPItem>> v, TypeIndex index){
+        int m = index.size();
+        int n = v.getSize();
+        double[] y = convertToArray(v);
+        int[][] cols = new int[n][];
+        int c = 0;
+        for (Pattern<BPItem> p: v){
+            cols[c] = index.encode(p);
+            c++;
+        }
+
+        Elimination el = new Elimination(m);
+        // the column stored at every pivot row
+        int[] basis = createRow(m,-1);
+        for (int j = 0; j < n; j++){
+            if (y[j] > 0){
+                exchange(el,basis,y,j,el.transform(cols[j]));
+            }
+        }
+        return convertFromArray(v,y);
+    }
+
+    /**
+     * Reduces the number of non-zero entries of a bin packing solution
+     * like {@link #reduceIncremental}, but stores the columns in a
+     * compressed sparse column format
+     *
+     * The memory used for the columns scales with their non-zero
+     * entries and every column is transformed in O(m) per non-zero
+     * entry. If the coefficients of a linear combination are integers
+     * after snapping, they are verified exactly and the unsnapped
+     * coefficients are used if the verification fails.
+     *
+     * @param v the bin packing solution
+     * @param index the item types of the bin packing instance
+     * @return a vector containing a solution with at most m non-zero
+     *         entries, covering every item type as often as v and
+     *         using at most as many bins
+     */
+    public Vector<Pattern<BPItem>> reduceSparse(Vector<Pattern<BPItem>> v, TypeIndex index){
+        int m = index.size();
+        int n = v.getSize();
+        double[] y = convertToArray(v);
+        int[][] csc = compress(v,index);
+        int[] colStart = csc[0];
+        int[] rows = csc[1];
+        int[] values = csc[2];
+
+        Elimination el = new Elimination(m);
+        // the column stored at every pivot row
+        int[] basis = createRow(m,-1);
+        for (int j = 0; j < n; j++){
+            if (y[j] <= 0){
+                continue;
+            }
+            double[] raw = el.transform(rows,values,colStart[j],colStart[j+1]);
+            double[] d = raw.clone();
+            el.snap(d);
+            int row = el.findPivot(d);
+            if (row != -1){
+                el.pivot(row,d);
+                basis[row] = j;
+                continue;
+            }
+            if (!verify(csc,basis,j,d)){
+                d = raw;
+            }
+            int leave = move(basis,y,j,d,-1);
+            if (leave != -1){
+                el.pivot(leave,d);
+                basis[leave] = j;
+            }
+        }
+        return convertFromArray(v,y);
+    }
+
+    /**
+     * Reduces the number of non-zero entries of a bin packing solution
+     * without round-off errors in the kernel vectors
+     *
+     * The columns are added one after another to an
+     * {@link ExactElimination}, which yields integral kernel vectors.
+     * If a value does not fit into a long, the solution is reduced by
+     * {@link #reduceSparse} instead.
+     *
+     * @param v the bin packing solution
+     * @param index the item types of the bin packing instance
+     * @return a vector containing a solution with at most m non-zero
+     *         entries, covering every item type as often as v and
+     *         using at most as many bins
+     */
+    public Vector<Pattern<BPItem>> reduceExact(Vector<Pattern<BPItem>> v, TypeIndex index){
+        int m = index.size();
+        int n = v.getSize();
+        double[] y = convertToArray(v);
+        int[][] csc = compress(v,index);
+        int[] colStart = csc[0];
+        int[] rows = csc[1];
+        int[] values = csc[2];
+
+        try{
+            ExactElimination el = new ExactElimination(m);
+            // the column stored at every pivot row
+            int[] basis = createRow(m,-1);
+            for (int j = 0; j < n; j++){
+                if (y[j] <= 0){
+                    continue;
+                }
+                long[] d = el.transform(rows,values,colStart[j],colStart[j+1]);
+                int row = el.findPivot(d);
+                if (row != -1){
+                    el.pivot(row,d);
+                    basis[row] = j;
+                    continue;
+                }
+
+                // det times column j equals the sum of d[r] times the
+                // column stored at r
+                double sign = Math.signum((double) el.det);
+                double[] z = new double[m];
+                for (int r = 0; r < m; r++){
+                    z[r] = sign*d[r];
+                }
+                int leave = move(basis,y,j,z,-Math.abs((double) el.det));
+                if (leave != -1){
+                    el.pivot(leave,d);
+                    basis[leave] = j;
+                }
+            }
+        }
+        catch(ArithmeticException e){
+            return reduceSparse(v,index);
+        }
+        return convertFromArray(v,y);
+    }
+
+    /**
+     * Stores the columns of a bin packing solution in a compressed
+     * sparse column format, without a dense encoding
+     *
+     * @param v the bin packing solution
+     * @param index the item types of the bin packing instance
+     * @return three arrays colStart, rows and values, such that the
+     *         non-zero entries of column j are stored at the positions
+     *         colStart[j] to colStart[j+1]-1 of rows and values
+     */
+    int[][] compress(Vector<Pattern<BPItem>> v, TypeIndex index){
+        int n = v.getSize();
+        int[] colStart = new int[n+1];
+        int nnz = 0;
+        for (Pattern<BPItem> p: v){
+            nnz = nnz+p.keys.length;
+        }
+        int[] rows = new int[nnz];
+        int[] values = new int[nnz];
+        int k = 0;
+        int c = 0;
+        for (Pattern<BPItem> p: v){
+            for (int i = 0; i < p.keys.length; i++){
+                int ind = index.indexOf((BPItem) p.keys[i]);
+                if (ind >= 0){
+                    rows[k] = ind;
+                    values[k] = p.counts[i];
+                    k++;
+                }
+            }
+            c++;
+            colStart[c] = k;
+        }
+        return new int[][]{colStart,rows,values};
+    }
+
+    /**
+     * Verifies exactly that a column is the linear combination of the
+     * stored columns with integral coefficients
+     *
+     * @param csc the columns in the format of {@link #compress}
+     * @param basis the column stored at every pivot row or
+     *        <code>-1</code>
+     * @param j the column
+     * @param d the coefficients at the pivot rows
+     * @return <code>true</code> if all coefficients are integers and
+     *         their combination equals column j
+     */
+    boolean verify(int[][] csc, int[] basis, int j, double[] d){
+        int[] colStart = csc[0];
+        int[] rows = csc[1];
+        int[] values = csc[2];
+        long[] sum = new long[basis.length];
+        for (int r = 0; r < basis.length; r++){
+            if (basis[r] == -1 || d[r] == 0){
+                continue;
+            }
+            if (d[r] != Math.rint(d[r]) || Math.abs(d[r]) > Integer.MAX_VALUE){
+                return false;
+            }
+            long c = (long) d[r];
+            for (int k = colStart[basis[r]]; k < colStart[basis[r]+1]; k++){
+                sum[rows[k]] = sum[rows[k]]+c*values[k];
+            }
+        }
+        for (int k = colStart[j]; k < colStart[j+1]; k++){
+            sum[rows[k]] = sum[rows[k]]-values[k];
+        }
+        for (long x: sum){
+            if (x != 0){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds a column to the stored linearly independent columns
+     *
+     * @param el the elimination matrix of the stored columns
+     * @param basis the column stored at every pivot row or
+     *        <code>-1</code>
+     * @param y the solution
+     * @param j the column to add
+     * @param d the column transformed by el
+     */
+    void exchange(Elimination el, int[] basis, double[] y, int j, double[] d){
+        int row = el.findPivot(d);
+        if (row != -1){
+            el.pivot(row,d);
+            basis[row] = j;
+            return;
+        }
+        int leave = move(basis,y,j,d,-1);
+        if (leave != -1){
+            el.pivot(leave,d);
+            basis[leave] = j;
+        }
+    }
+
+    /**
+     * Moves a solution along a kernel vector z, in the direction not
+     * increasing the number of bins, until a component becomes zero
+     *
+     * @param basis the column stored at every pivot row or
+     *        <code>-1</code>
+     * @param y the solution
+     * @param j the column which is a linear combination of the stored
+     *        columns
+     * @param z the entries of the kernel vector belonging to the
+     *        stored columns, indexed by their pivot rows
+     * @param zj the negative entry of the kernel vector belonging to j
+     * @return the pivot row of the stored column which became zero or
+     *         <code>-1</code> if column j became zero
+     */
+    int move(int[] basis, double[] y, int j, double[] z, double zj){
+        int m = basis.length;
+
+        // moving along z changes the number of bins by g
+        double g = zj;
+        for (int r = 0; r < m; r++){
+            if (basis[r] != -1){
+                g = g+z[r];
+            }
+        }
+        double dir = 1;
+        if (g > 0){
+            dir = -1;
+        }
+
+        // find the first component reaching zero
+        double step = Double.MAX_VALUE;
+        int leave = -1;
+        if (dir > 0){
+            step = y[j]/(-zj);
+        }
+        for (int r = 0; r < m; r++){
+            if (basis[r] != -1 && dir*z[r] < 0 && y[basis[r]]/Math.abs(z[r]) < step){
+                step = y[basis[r]]/Math.abs(z[r]);
+                leave = r;
+            }
+        }
+
+        // move the solution
+        y[j] = y[j]+dir*step*zj;
+        for (int r = 0; r < m; r++){
+            if (basis[r] != -1){
+                y[basis[r]] = Math.max(0,y[basis[r]]+dir*step*z[r]);
+            }
+        }
+        if (leave == -1){
+            y[j] = 0;
+        }
+        else{
+            y[basis[leave]] = 0;
+        }
+        return leave;
+    }
+}
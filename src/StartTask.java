@@ -0,0 +1,89 @@
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * This computes a part of the starting solution of the {@link MaxMin}
+ * algorithm, i.e. the sum of the block solutions for a range of unit
+ * price vectors, by splitting the range until it is small enough
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ * @param <I> the additional input which is needed
+ * @param <T> the entries of the result vector
+ */
+public class StartTask<I,T> extends RecursiveTask<Vector<T>>{
+
+    /**
+     * The version of the serialized form inherited from
+     * {@link java.util.concurrent.ForkJoinTask}
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The number of block problems which are solved without splitting
+     */
+    static final int THRESHOLD = 8;
+
+    /**
+     * The approximative block solver
+     */
+    ABS<I,T> abs;
+
+    /**
+     * The additional input
+     */
+    I input;
+
+    /**
+     * The first index of the range
+     */
+    int from;
+
+    /**
+     * The index after the last index of the range
+     */
+    int to;
+
+    /**
+     * The number of functions
+     */
+    int m;
+
+    /**
+     * Creates a new StartTask for a range of unit price vectors
+     *
+     * @param abs the approximative block solver
+     * @param input the input
+     * @param from the first index of the range
+     * @param to the index after the last index of the range
+     * @param m the number of functions
+     */
+    public StartTask(ABS<I,T> abs, I input, int from, int to, int m){
+        this.abs = abs;
+        this.input = input;
+        this.from = from;
+        this.to = to;
+        this.m = m;
+    }
+
+    /**
+     * Computes the sum of the block solutions for the range
+     *
+     * @return a {@link Vector} containing the sum of the solutions
+     */
+    protected Vector<T> compute(){
+        if (to-from <= THRESHOLD){
+            Vector<T> res = new Vector<>();
+            for (int i = from; i < to; i++){
+                // solve ABS(e_m,1/2)
+                res.addInPlace(abs.solveUnit(i,m,0.5,input));
+            }
+            return res;
+        }
+        int mid = (from+to)/2;
+        StartTask<I,T> left = new StartTask<>(abs,input,from,mid,m);
+        StartTask<I,T> right = new StartTask<>(abs,input,mid,to,m);
+        left.fork();
+        Vector<T> res = right.compute();
+        res.addInPlace(left.join());
+        return res;
+    }
+}
@@ -20,6 +20,12 @@ public class TestBinPacking{
         double [][] sizes = p.sizes;
         double epsilon = Double.parseDouble(args[2]);
 
+        // the optional fourth argument is the size of the pattern pool
+        int poolSize = 0;
+        if (args.length > 3){
+            poolSize = Integer.parseInt(args[3]);
+        }
+
         DateFormat df = new SimpleDateFormat("yyyy_MM_dd_HH_mm_ss");
         Date d = new Date();
         String date = df.format(d);
@@ -32,12 +38,14 @@ public class TestBinPacking{
                 RobustRoundingFunction nround = new NewRobustRoundingFunction();
                 Input input = new TestInput(n-1,sizes[0]);
                 OnlineBinPacking obp = new OnlineBinPacking(nround,input);
+                obp.poolSize = poolSize;
                 obp.solve(epsilon);
                 io.println("Finished NEW");
 
                 input = new TestInput(n-1,sizes[0]);
                 RobustRoundingFunction oround = new OldRobustRoundingFunction();
                 obp = new OnlineBinPacking(oround,input);
+                obp.poolSize = poolSize;
                 obp.solve(epsilon);
                 io.println("Finished OLD");
 
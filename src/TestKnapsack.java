@@ -7,7 +7,8 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 
 /**
- * Runs several tests on the Knapsack and the CKnapsack algorithms
+ * Runs several tests on the Knapsack and the CKnapsack or DPKnapsack
+ * algorithms
  * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
  */
 
@@ -36,7 +37,17 @@ public class TestKnapsack{
     /**
      * Test 5000 instances for each ratio/approx combination
      * 
-     * @param args ignored
+     * @param args may contain <code>parallel</code> to solve the
+     *        knapsack problems with the parallel mode of {@link Knapsack},
+     *        <code>coarse</code> to disable its full bucketing,
+     *        <code>core</code> to solve on a core of items first,
+     *        <code>dominance</code> to remove the dominated items
+     *        before solving,
+     *        <code>thin</code> to discard subsets of large items with
+     *        nearly the same profit as a smaller one
+     *        and <code>cplex</code> to compute the optimal solutions
+     *        with CKnapsack, which needs CPLEX, instead of
+     *        {@link DPKnapsack}
      */
     public static void main(String[] args){
         // find a unique file name for the test 
@@ -51,11 +62,38 @@ public class TestKnapsack{
             int size;
             int capacity;
             Knapsack kp = new Knapsack();
-            CKnapsack cp = new CKnapsack();
+            Dominance dom = new Dominance();
+            ArrayList<KPItem> red;
+            boolean dominance = false;
+            KnapsackSolver cp = new DPKnapsack();
+            for (String arg: args){
+                if (arg.equals("parallel")){
+                    kp.parallel = true;
+                }
+                else if (arg.equals("cplex")){
+                    // load CKnapsack only on demand, such that the test
+                    // runs and compiles without CPLEX
+                    cp = (KnapsackSolver) Class.forName("CKnapsack").getDeclaredConstructor().newInstance();
+                }
+                else if (arg.equals("coarse")){
+                    kp.fullBucketing = false;
+                }
+                else if (arg.equals("core")){
+                    kp.core = true;
+                }
+                else if (arg.equals("dominance")){
+                    dominance = true;
+                }
+                else if (arg.equals("thin")){
+                    kp.thinning = true;
+                }
+            }
             double before;
             double after;
             int weight;
             int profit;
+            double timedom;
+            int removed;
             double timeapprox;
             double valueapprox;
             double timeopt;
@@ -67,7 +105,7 @@ public class TestKnapsack{
                     File file = new File("../results/"+date+r+epsilon);
                     file.createNewFile();
                     FileWriter writer = new FileWriter(file);
-                    writer.write("amount timeapprox valueapprox timeopt valueopt theory\n");
+                    writer.write("amount timeapprox valueapprox timeopt valueopt theory removed\n");
 
                     for(int i = 1000; i < 6001; i++){
                         size = 0;
@@ -82,12 +120,25 @@ public class TestKnapsack{
                         }
                         
                         capacity = (int) (size*r);
-                        
+
+                        // remove the dominated items for both algorithms,
+                        // the time is added to both of them
+                        red = xs;
+                        timedom = 0;
+                        removed = 0;
+                        if (dominance){
+                            before = System.currentTimeMillis();
+                            red = dom.reduce(xs);
+                            after = System.currentTimeMillis();
+                            timedom = after-before;
+                            removed = dom.removed;
+                        }
+
                         // solve the problem approximately
                         before = System.currentTimeMillis();
-                        Pattern<KPItem> res = kp.lawler(xs,epsilon,capacity);
+                        Pattern<KPItem> res = kp.lawler(red,epsilon,capacity);
                         after = System.currentTimeMillis();
-                        timeapprox = after-before;
+                        timeapprox = after-before+timedom;
                         
                         // get the value of the approximate solution
                         valueapprox = 0;
@@ -100,9 +151,9 @@ public class TestKnapsack{
                        
                         // solve the problem optimally
                         before = System.currentTimeMillis();
-                        res = cp.solve(xs,capacity);
+                        res = cp.solve(red,capacity);
                         after = System.currentTimeMillis();
-                        timeopt = after-before;
+                        timeopt = after-before+timedom;
                         
                         // get the value of the optimal solution
                         valueopt = 0;
@@ -114,7 +165,7 @@ public class TestKnapsack{
                         }
 
                         // write the results
-                        writer.write(i+" "+timeapprox+" "+valueapprox+" "+timeopt+" "+valueopt+" "+((1-epsilon)*valueopt)+"\n");
+                        writer.write(i+" "+timeapprox+" "+valueapprox+" "+timeopt+" "+valueopt+" "+((1-epsilon)*valueopt)+" "+removed+"\n");
                         xs.clear();
                     }
                     writer.close();
@@ -0,0 +1,120 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This maps the item types of a (rounded) bin packing instance to
+ * dense indices, such that a {@link Pattern} can be represented by an
+ * array of multiplicities
+ *
+ * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
+ */
+public class TypeIndex{
+
+    /**
+     * The item types, the index of an item is its position in this list
+     */
+    final ArrayList<BPItem> types;
+
+    /**
+     * A mapping from the item types to their indices
+     */
+    final HashMap<BPItem,Integer> positions;
+
+    /**
+     * The dense representations of the patterns encoded so far
+     */
+    final ConcurrentHashMap<Pattern<BPItem>,int[]> encoded;
+
+    /**
+     * Creates a new TypeIndex for a list of item types
+     *
+     * @param types the item types of the instance
+     */
+    public TypeIndex(ArrayList<BPItem> types){
+        this.types = types;
+        positions = new HashMap<>();
+        for (int i = 0; i < types.size(); i++){
+            positions.put(types.get(i),i);
+        }
+        encoded = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the number of item types
+     *
+     * @return the number of item types
+     */
+    public int size(){
+        return types.size();
+    }
+
+    /**
+     * Returns the item type with a given index
+     *
+     * @param i the index of the item type
+     * @return the item type with index i
+     */
+    public BPItem get(int i){
+        return types.get(i);
+    }
+
+    /**
+     * Returns the index of an item type
+     *
+     * @param it the item type
+     * @return the index of it or <code>-1</code> if it does not belong
+     *         to the instance
+     */
+    public int indexOf(BPItem it){
+        Integer i = positions.get(it);
+        if (i == null){
+            return -1;
+        }
+        return i;
+    }
+
+    /**
+     * Computes the dense representation of a pattern
+     *
+     * Items which do not belong to the instance are ignored. The result
+     * is stored and must not be modified.
+     *
+     * @param p the pattern to be encoded
+     * @return an array a such that a[i] is the number of times the item
+     *         type with index i occurs in p
+     */
+    public int[] encode(Pattern<BPItem> p){
+        int[] res = encoded.get(p);
+        if (res == null){
+            res = new int[types.size()];
+            for (int i = 0; i < p.keys.length; i++){
+                int ind = indexOf((BPItem) p.keys[i]);
+                if (ind >= 0){
+                    res[ind] = p.counts[i];
+                }
+            }
+            encoded.put(p,res);
+        }
+        return res;
+    }
+
+    /**
+     * Computes the pattern belonging to a dense representation
+     *
+     * @param counts an array a such that a[i] is the number of times
+     *        the item type with index i occurs
+     * @return the interned pattern described by counts
+     */
+    public Pattern<BPItem> decode(int[] counts){
+        PatternBuilder<BPItem> pb = new PatternBuilder<>();
+        for (int i = 0; i < counts.length; i++){
+            if (counts[i] != 0){
+                pb.put(types.get(i),counts[i]);
+            }
+        }
+        Pattern<BPItem> p = pb.build().intern();
+        encoded.putIfAbsent(p,counts.clone());
+        return p;
+    }
+}
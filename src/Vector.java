@@ -1,40 +1,84 @@
-import java.util.HashMap;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 /**
  * This represents a spare vector, where only few indices are non-zero
  * and the stored values are fractional
  *
+ * The indices and values are stored in an open addressing hash table
+ * with linear probing, such that the values are kept as primitive
+ * doubles and no boxing occurs when reading or writing them. All
+ * stored values are multiplied by a common factor, such that the
+ * vector can be scaled in place in constant time.
+ *
  * @param <T> the type of indices used
  * @author Sebastian Berndt <seb@informatik.uni-kiel.de>
  */
 public class Vector<T> implements Iterable<T>{
-    
+
+    /**
+     * The initial number of slots of the hash table
+     */
+    static final int INITIAL_CAPACITY = 8;
+
+    /**
+     * The slots containing the indices which are non-zero or
+     * <code>null</code> if a slot is free
+     */
+    Object[] keys;
+
+    /**
+     * The values belonging to the indices stored in the same slot
+     */
+    double[] values;
+
+    /**
+     * The factor all stored values need to be multiplied with
+     */
+    double factor;
+
+    /**
+     * The number of non-zero entries
+     */
+    int size;
+
     /**
-     * An HashMap containing the indices which are non-zero
+     * The number of slots minus one, used to compute the slot of an index
      */
-    HashMap<T,Double> map;
-    
+    int mask;
+
+    /**
+     * The number of insertions and removals of indices, used to detect
+     * changes during an iteration
+     */
+    int modCount;
+
     /**
      * Creates a new Vector containing just zeroes
      *
      */
     public Vector(){
-        map = new HashMap<T,Double>();
+        keys = new Object[INITIAL_CAPACITY];
+        values = new double[INITIAL_CAPACITY];
+        mask = INITIAL_CAPACITY-1;
+        factor = 1;
+        size = 0;
     }
-    
+
     /**
      * Creates a new Vector as copy of another one
      *
      * @param v the Vector to be copied
      */
     public Vector(Vector<T> v){
-        map = new HashMap<T,Double>();
-        for (T t: v){
-            put(t,v.get(t));
-        }
+        keys = v.keys.clone();
+        values = v.values.clone();
+        mask = v.mask;
+        factor = v.factor;
+        size = v.size;
     }
-    
+
     /**
      * Returns the value stored under a index
      *
@@ -43,7 +87,36 @@ public class Vector<T> implements Iterable<T>{
      * if no number is stored
      */
     public Double get(T t){
-        return map.get(t);
+        int i = find(t);
+        if (i < 0){
+            return null;
+        }
+        return values[i]*factor;
+    }
+
+    /**
+     * Returns the value stored under a index without boxing it
+     *
+     * @param t the index to look at
+     * @return the number which is stored under t or <code>0</code> if
+     * no number is stored
+     */
+    public double getValue(T t){
+        int i = find(t);
+        if (i < 0){
+            return 0;
+        }
+        return values[i]*factor;
+    }
+
+    /**
+     * Tests whether a non-zero value is stored under a index
+     *
+     * @param t the index to look at
+     * @return <code>true</code> if a value is stored under t
+     */
+    public boolean contains(T t){
+        return find(t) >= 0;
     }
 
     /**
@@ -54,57 +127,205 @@ public class Vector<T> implements Iterable<T>{
      */
     public Vector<T> add(Vector<T> o){
         Vector<T> res = new Vector<T>(o);
-
-        // Add all entries to the new vector
-        for (T t: this){
-            if (o.map.containsKey(t)){
-                res.put(t,get(t)+o.get(t));
-            }
-            else{
-                res.put(t,get(t));
-            }
-        }
+        res.addInPlace(this);
         return res;
     }
 
     /**
-     * Creates a new Vector as a scaled copy of this 
+     * Creates a new Vector as a scaled copy of this
      *
      * @param tau the value to scale the vector
      * @return a new vector, which is tau times this vector
      */
     public Vector<T> scale(double tau){
         Vector<T> res = new Vector<T>(this);
-        for(T t: this){
-            res.put(t,get(t)*tau);
-        }
+        res.scaleInPlace(tau);
         return res;
     }
-    
+
+    /**
+     * Scales this vector without copying it
+     *
+     * Only the common factor is changed, such that this takes constant
+     * time unless the factor needs to be normalized.
+     *
+     * @param tau the value to scale the vector
+     */
+    public void scaleInPlace(double tau){
+        if (tau == 0){
+            clear();
+            return;
+        }
+        factor = factor*tau;
+
+        // prevent the factor from underflowing or overflowing
+        if (Math.abs(factor) < 1e-100 || Math.abs(factor) > 1e100){
+            for (int i = 0; i < values.length; i++){
+                values[i] = values[i]*factor;
+            }
+            factor = 1;
+        }
+    }
+
+    /**
+     * Adds a multiple of another vector to this vector, i.e. computes
+     * this = this + alpha*o
+     *
+     * This takes time proportional to the number of non-zero entries of o.
+     *
+     * @param alpha the value to scale o with
+     * @param o the vector to be added to this vector
+     */
+    public void axpy(double alpha, Vector<T> o){
+        if (alpha == 0){
+            return;
+        }
+        // do not iterate over the entries which are changed
+        if (o == this){
+            scaleInPlace(1+alpha);
+            return;
+        }
+        double f = alpha*o.factor;
+        for (int i = 0; i < o.keys.length; i++){
+            if (o.keys[i] != null){
+                @SuppressWarnings("unchecked")
+                T t = (T) o.keys[i];
+                accumulate(t,f*o.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds another vector to this vector without copying this vector
+     *
+     * @param o the vector to be added to this vector
+     */
+    public void addInPlace(Vector<T> o){
+        axpy(1,o);
+    }
+
+    /**
+     * Subtracts another vector from this vector without copying this
+     * vector
+     *
+     * @param o the vector to be subtracted from this vector
+     */
+    public void subtractInPlace(Vector<T> o){
+        axpy(-1,o);
+    }
+
+    /**
+     * Adds a value to the value stored under a index
+     *
+     * @param t the index to change
+     * @param n the value to add
+     */
+    public void accumulate(T t, double n){
+        if (n == 0){
+            return;
+        }
+        int i = find(t);
+        if (i < 0){
+            put(t,n);
+        }
+        else{
+            values[i] = values[i]+n/factor;
+            if (values[i] == 0){
+                removeAt(i);
+            }
+        }
+    }
+
+    /**
+     * Removes all entries of this vector
+     *
+     */
+    public void clear(){
+        for (int i = 0; i < keys.length; i++){
+            keys[i] = null;
+            values[i] = 0;
+        }
+        factor = 1;
+        size = 0;
+        modCount++;
+    }
+
     /**
      * Add an index and a value to the Vector
-     * 
+     *
      * @param t the index to store the value under
      * @param n the value to store
      */
     public void put(T t, double n){
         if (n==0){
-            map.remove(t);
+            int i = find(t);
+            if (i >= 0){
+                removeAt(i);
+            }
+            return;
         }
-        else{
-            map.put(t,n);
+        int i = slot(t);
+        while (keys[i] != null){
+            if (keys[i].equals(t)){
+                values[i] = n/factor;
+                return;
+            }
+            i = (i+1) & mask;
+        }
+        keys[i] = t;
+        values[i] = n/factor;
+        size++;
+        modCount++;
+
+        // keep the load factor below 1/2
+        if (2*size > keys.length){
+            resize(2*keys.length);
         }
     }
-    
+
     /**
      * Iterates over the indices which contain non-zero entries
      *
      * @return an {@link Iterator} iterating over the indices
      */
     public Iterator<T> iterator(){
-        return map.keySet().iterator();
+        return new Iterator<T>(){
+
+            // the next slot to look at
+            int next = advance(0);
+
+            // the entries may not be inserted or removed meanwhile
+            int expected = modCount;
+
+            int advance(int i){
+                while (i < keys.length && keys[i] == null){
+                    i++;
+                }
+                return i;
+            }
+
+            public boolean hasNext(){
+                if (modCount != expected){
+                    throw new ConcurrentModificationException();
+                }
+                return next < keys.length;
+            }
+
+            @SuppressWarnings("unchecked")
+            public T next(){
+                if (modCount != expected){
+                    throw new ConcurrentModificationException();
+                }
+                if (next >= keys.length){
+                    throw new NoSuchElementException();
+                }
+                T t = (T) keys[next];
+                next = advance(next+1);
+                return t;
+            }
+        };
     }
-    
+
     /**
      * Returns the accumulated values of the stored indices
      *
@@ -112,21 +333,95 @@ public class Vector<T> implements Iterable<T>{
      */
     public double sum(){
         double sum = 0;
-        for (T t: this){
-            sum = sum + map.get(t);
+        for (int i = 0; i < values.length; i++){
+            sum = sum + values[i];
         }
-        return sum;
+        return sum*factor;
     }
-    
+
     /**
      * Returns the number of non-zero entries
      *
      * @return the number of non-zero entries
      */
     public int getSize(){
-        return map.size();
+        return size;
     }
-}
 
+    /**
+     * Computes the slot where the search for an index starts
+     *
+     * @param t the index
+     * @return the first slot to probe for t
+     */
+    int slot(Object t){
+        int h = t.hashCode()*0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
 
+    /**
+     * Finds the slot storing an index
+     *
+     * @param t the index to look for
+     * @return the slot containing t or <code>-1</code> if t is not stored
+     */
+    int find(Object t){
+        int i = slot(t);
+        while (keys[i] != null){
+            if (keys[i].equals(t)){
+                return i;
+            }
+            i = (i+1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes the entry stored in a slot and shifts the following
+     * entries back, such that no probe sequence is interrupted
+     *
+     * @param i the slot to be cleared
+     */
+    void removeAt(int i){
+        int last = i;
+        int act = (i+1) & mask;
+        while (keys[act] != null){
+            int ideal = slot(keys[act]);
+            // the entry may be moved if last lies between its ideal
+            // slot and its current slot
+            if (((act-ideal) & mask) >= ((act-last) & mask)){
+                keys[last] = keys[act];
+                values[last] = values[act];
+                last = act;
+            }
+            act = (act+1) & mask;
+        }
+        keys[last] = null;
+        values[last] = 0;
+        size--;
+        modCount++;
+    }
 
+    /**
+     * Rehashes all entries into a table with the given number of slots
+     *
+     * @param capacity the new number of slots, a power of two
+     */
+    void resize(int capacity){
+        Object[] oldKeys = keys;
+        double[] oldValues = values;
+        keys = new Object[capacity];
+        values = new double[capacity];
+        mask = capacity-1;
+        for (int j = 0; j < oldKeys.length; j++){
+            if (oldKeys[j] != null){
+                int i = slot(oldKeys[j]);
+                while (keys[i] != null){
+                    i = (i+1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}